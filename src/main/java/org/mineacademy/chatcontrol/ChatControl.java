@@ -35,9 +35,12 @@ import org.mineacademy.chatcontrol.model.Discord;
 import org.mineacademy.chatcontrol.model.Filter;
 import org.mineacademy.chatcontrol.model.Format;
 import org.mineacademy.chatcontrol.model.Log;
+import org.mineacademy.chatcontrol.model.LogWriter;
 import org.mineacademy.chatcontrol.model.Newcomer;
 import org.mineacademy.chatcontrol.model.Packets;
 import org.mineacademy.chatcontrol.model.Placeholders;
+import org.mineacademy.chatcontrol.model.PlayerDataWriter;
+import org.mineacademy.chatcontrol.model.PlayerGrid;
 import org.mineacademy.chatcontrol.model.UserMap;
 import org.mineacademy.chatcontrol.model.WarningPoints;
 import org.mineacademy.chatcontrol.operator.Groups;
@@ -269,6 +272,7 @@ public final class ChatControl extends SimplePlugin {
 		WarningPoints.scheduleTask();
 		Newcomer.scheduleTask();
 		Bungee.scheduleTask();
+		PlayerGrid.scheduleTask();
 
 		// Copy sample image but only if folder doesn't exist so people can remove it
 		if (!FileUtil.getFile("images").exists())
@@ -309,6 +313,25 @@ public final class ChatControl extends SimplePlugin {
 		//PlayerCache.clear();
 	}
 
+	/**
+	 * Called automatically once when the plugin stops
+	 */
+	@Override
+	protected void onPluginStop() {
+
+		// Write pending logs and player data before we go
+		LogWriter.getInstance().stop();
+		PlayerDataWriter.getInstance().flush();
+	}
+
+	/**
+	 * Called automatically before the plugin reloads, when scheduled tasks are cancelled
+	 */
+	@Override
+	protected void onPluginPreReload() {
+		PlayerDataWriter.getInstance().flush();
+	}
+
 	/**
 	* Called automatically to enable checking for updates
 	*
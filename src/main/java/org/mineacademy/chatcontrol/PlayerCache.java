@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -23,6 +24,8 @@ import org.mineacademy.chatcontrol.model.Colors;
 import org.mineacademy.chatcontrol.model.Database;
 import org.mineacademy.chatcontrol.model.Log;
 import org.mineacademy.chatcontrol.model.Permissions;
+import org.mineacademy.chatcontrol.model.PlayerDataStore;
+import org.mineacademy.chatcontrol.model.PlayerDataWriter;
 import org.mineacademy.chatcontrol.model.Spy;
 import org.mineacademy.chatcontrol.model.Toggle;
 import org.mineacademy.chatcontrol.model.UserMap;
@@ -37,27 +40,30 @@ import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.collection.StrictMap;
-import org.mineacademy.fo.constants.FoConstants;
 import org.mineacademy.fo.model.HookManager;
 import org.mineacademy.fo.model.SimpleTime;
 import org.mineacademy.fo.model.Tuple;
 import org.mineacademy.fo.remain.CompChatColor;
 import org.mineacademy.fo.remain.Remain;
-import org.mineacademy.fo.settings.YamlSectionConfig;
 
 import lombok.Getter;
 import lombok.Setter;
 
 /**
- * Represents a cache saved to data.db for living players
+ * Represents a cache saved to the players folder for living players
  */
 @Getter
-public final class PlayerCache extends YamlSectionConfig {
+public final class PlayerCache {
 
 	/**
 	 * The player cache
 	 */
-	private static volatile Map<UUID, PlayerCache> cacheMap = new HashMap<>();
+	private static final Map<UUID, PlayerCache> cacheMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Caches read from disk when players were logging in, taken over once they join
+	 */
+	private static final Map<UUID, PlayerCache> preloadedCaches = new ConcurrentHashMap<>();
 
 	/**
 	 * The players unique id
@@ -169,23 +175,11 @@ public final class PlayerCache extends YamlSectionConfig {
 	private long lastReplyUpdate;
 
 	/*
-	 * Create a new player cache (see at the bottom)
+	 * Create a new empty player cache (see at the bottom)
 	 */
 	private PlayerCache(String name, UUID uniqueId) {
-		super("Players." + uniqueId.toString());
-
 		this.playerName = name;
 		this.uniqueId = uniqueId;
-
-		this.loadConfiguration(NO_DEFAULT, FoConstants.File.DATA);
-	}
-
-	/**
-	 * @see org.mineacademy.fo.settings.YamlConfig#onLoadFinish()
-	 */
-	@Override
-	protected void onLoadFinish() {
-		this.loadFromData(getMap(""));
 	}
 
 	/**
@@ -193,7 +187,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @param player
 	 */
-	public void checkLimits(Player player) {
+	public synchronized void checkLimits(Player player) {
 
 		// Check if player still has permissions for their custom color/decoration
 		// removing them if not
@@ -233,6 +227,7 @@ public final class PlayerCache extends YamlSectionConfig {
 				Log.logTip("TIP Alert: Removing channel " + otherChannel + " in mode " + otherMode + " due to not having " + joinPermission + " permission");
 
 				it.remove();
+				channelInstance.updateMember(this.uniqueId, null);
 				save = true;
 
 				continue;
@@ -242,6 +237,7 @@ public final class PlayerCache extends YamlSectionConfig {
 				Log.logTip("TIP Alert: Removing channel " + otherChannel + " in mode " + otherMode + " due to having another channel on write already (hard limit is 1)");
 
 				it.remove();
+				channelInstance.updateMember(this.uniqueId, null);
 				save = true;
 
 				continue;
@@ -251,6 +247,7 @@ public final class PlayerCache extends YamlSectionConfig {
 				Log.logTip("TIP Alert: Removing channel " + otherChannel + " in mode " + otherMode + " due to having another channels on read already (player-specific limit is " + maxReadChannels + ")");
 
 				it.remove();
+				channelInstance.updateMember(this.uniqueId, null);
 				save = true;
 			}
 
@@ -266,7 +263,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @return
 	 */
-	public SerializedMap serialize() {
+	public synchronized SerializedMap serialize() {
 		final SerializedMap map = new SerializedMap();
 
 		map.putIf("Chat_Color", this.chatColor);
@@ -297,10 +294,30 @@ public final class PlayerCache extends YamlSectionConfig {
 		return map;
 	}
 
+	/*
+	 * Load this cache data from the given map, moving the player between
+	 * channel and spy indexes if he is online
+	 */
+	private void updateFromData(SerializedMap map) {
+		final boolean online = this.toPlayer() != null;
+
+		// Channels may change below, take the player out of the old ones first
+		if (online)
+			this.indexChannels(false);
+
+		this.loadFromData(map);
+
+		if (online) {
+			this.indexChannels(true);
+
+			Spy.updateSpying(this, true);
+		}
+	}
+
 	/*
 	 * Load this cache data from the given map
 	 */
-	private void loadFromData(SerializedMap map) {
+	private synchronized void loadFromData(SerializedMap map) {
 		this.chatColor = map.get("Chat_Color", CompChatColor.class);
 		this.chatDecoration = map.get("Chat_Decoration", CompChatColor.class);
 		this.leftChannels = map.getSet("Left_Channels", String.class);
@@ -323,31 +340,14 @@ public final class PlayerCache extends YamlSectionConfig {
 	}
 
 	/**
-	 * @see org.mineacademy.fo.settings.YamlConfig#save()
+	 * Save this cache to database or to the players folder shortly,
+	 * together with other changes made in the meanwhile
 	 */
-	@Override
 	public void save() {
 		if (!this.allowSave)
 			return;
 
-		if (Settings.MySQL.ENABLED)
-			Common.runAsync(() -> Database.getInstance().saveCache(this));
-		else
-			writeToDisk();
-	}
-
-	/**
-	 * Force save the data we have to data.db
-	 */
-	public void writeToDisk() {
-		final SerializedMap map = serialize();
-
-		if (!map.isEmpty() && !"{}".equals(map.toString())) { // We serialize null values too but they are not saved
-			for (final Map.Entry<String, Object> entry : map.entrySet())
-				setNoSave(entry.getKey(), entry.getValue());
-
-			super.save();
-		}
+		PlayerDataWriter.getInstance().markDirty(this);
 	}
 
 	/* ------------------------------------------------------------------------------- */
@@ -377,7 +377,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @param chatColor
 	 */
-	public void setChatColor(@Nullable CompChatColor chatColor) {
+	public synchronized void setChatColor(@Nullable CompChatColor chatColor) {
 		this.chatColor = chatColor;
 
 		save();
@@ -388,7 +388,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @param chatDecoration
 	 */
-	public void setChatDecoration(@Nullable CompChatColor chatDecoration) {
+	public synchronized void setChatDecoration(@Nullable CompChatColor chatDecoration) {
 		this.chatDecoration = chatDecoration;
 
 		save();
@@ -410,7 +410,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param uniqueId
 	 * @param ignored
 	 */
-	public void setIgnoredPlayer(UUID uniqueId, boolean ignored) {
+	public synchronized void setIgnoredPlayer(UUID uniqueId, boolean ignored) {
 		if (ignored)
 			this.ignoredPlayers.add(uniqueId);
 		else
@@ -435,7 +435,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param toggle
 	 * @param ignored
 	 */
-	public void setIgnoredPart(Toggle toggle, boolean ignored) {
+	public synchronized void setIgnoredPart(Toggle toggle, boolean ignored) {
 		if (ignored)
 			this.ignoredParts.add(toggle);
 		else
@@ -459,7 +459,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @param channel
 	 */
-	public void markLeftChannel(Channel channel) {
+	public synchronized void markLeftChannel(Channel channel) {
 		this.leftChannels.add(channel.getName());
 
 		save();
@@ -495,7 +495,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param broadcast
 	 * @param ignoring
 	 */
-	public void setIgnoringMessage(PlayerMessage message, boolean ignoring) {
+	public synchronized void setIgnoringMessage(PlayerMessage message, boolean ignoring) {
 		final PlayerMessage.Type type = message.getType();
 		final Set<String> messages = this.ignoredMessages.getOrDefault(type, new HashSet<>());
 
@@ -518,7 +518,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param broadcast
 	 * @param ignoring
 	 */
-	public void setIgnoringMessages(PlayerMessage.Type type, boolean ignoring) {
+	public synchronized void setIgnoringMessages(PlayerMessage.Type type, boolean ignoring) {
 		this.ignoredMessages.remove(type);
 
 		if (ignoring)
@@ -598,10 +598,12 @@ public final class PlayerCache extends YamlSectionConfig {
 			HookManager.setNick(this.uniqueId, tag);
 
 		} else {
-			if (tag != null)
-				this.tags.put(type, tag);
-			else
-				this.tags.remove(type);
+			synchronized (this) {
+				if (tag != null)
+					this.tags.put(type, tag);
+				else
+					this.tags.remove(type);
+			}
 
 			save();
 		}
@@ -623,14 +625,12 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param warnSet
 	 * @param points
 	 */
-	public void setWarnPointsNoSave(String warnSet, int points) {
+	public synchronized void setWarnPointsNoSave(String warnSet, int points) {
 		if (points == 0)
 			this.warnPoints.remove(warnSet);
 
 		else
 			this.warnPoints.put(warnSet, points);
-
-		setNoSave("Warn_Points", this.warnPoints.isEmpty() ? null : this.warnPoints);
 	}
 
 	/**
@@ -638,7 +638,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @return
 	 */
-	public Map<String, Integer> getWarnPoints() {
+	public synchronized Map<String, Integer> getWarnPoints() {
 		return Collections.unmodifiableMap(new HashMap<>(this.warnPoints));
 	}
 
@@ -732,14 +732,14 @@ public final class PlayerCache extends YamlSectionConfig {
 	}
 
 	/**
-	 * Update data.db with new information about channel and its mode
+	 * Update player data with new information about channel and its mode
 	 *
 	 * Internal use only! Use {@link Channel} methods as API means
 	 *
 	 * @param channel
 	 * @param mode
 	 */
-	public void updateChannelMode(Channel channel, @Nullable Channel.Mode mode) {
+	public synchronized void updateChannelMode(Channel channel, @Nullable Channel.Mode mode) {
 		final String channelName = channel.getName().toLowerCase();
 
 		if (mode == null)
@@ -748,9 +748,29 @@ public final class PlayerCache extends YamlSectionConfig {
 		else
 			this.channels.put(channelName, mode);
 
+		if (this.toPlayer() != null)
+			channel.updateMember(this.uniqueId, mode);
+
 		save();
 	}
 
+	/**
+	 * Add or remove the player from the member index of all his channels,
+	 * called when he joins or quits the server
+	 *
+	 * Internal use only!
+	 *
+	 * @param online
+	 */
+	public void indexChannels(boolean online) {
+		for (final Entry<String, Channel.Mode> entry : this.channels.entrySet()) {
+			final Channel channel = Channel.findChannel(entry.getKey());
+
+			if (channel != null)
+				channel.updateMember(this.uniqueId, online ? entry.getValue() : null);
+		}
+	}
+
 	/**
 	 * Return true if player has rule data
 	 *
@@ -777,7 +797,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param key
 	 * @param object
 	 */
-	public void setRuleData(String key, @Nullable Object object) {
+	public synchronized void setRuleData(String key, @Nullable Object object) {
 
 		if (object == null || object.toString().trim().equals("") || object.toString().equalsIgnoreCase("null"))
 			this.ruleData.remove(key);
@@ -802,7 +822,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @param duration how long, null to unmute
 	 */
-	public void setMuted(@Nullable SimpleTime duration) {
+	public synchronized void setMuted(@Nullable SimpleTime duration) {
 		this.unmuteTime = duration == null ? null : System.currentTimeMillis() + (duration.getTimeSeconds() * 1000);
 
 		save();
@@ -831,17 +851,18 @@ public final class PlayerCache extends YamlSectionConfig {
 	/**
 	 * Disable all spying
 	 */
-	public void setSpyingOff() {
+	public synchronized void setSpyingOff() {
 		this.spyingChannels.clear();
 		this.spyingSectors.clear();
 
+		this.updateSpyIndex();
 		save();
 	}
 
 	/**
 	 * Enable all spying
 	 */
-	public void setSpyingOn() {
+	public synchronized void setSpyingOn() {
 		for (final Spy.Type type : Spy.Type.values())
 			if (Settings.Spy.APPLY_ON.contains(type))
 				this.spyingSectors.add(type);
@@ -849,6 +870,7 @@ public final class PlayerCache extends YamlSectionConfig {
 		for (final Channel channel : Channel.getChannels())
 			this.spyingChannels.add(channel.getName());
 
+		this.updateSpyIndex();
 		save();
 	}
 
@@ -869,7 +891,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param type what game sector to spy
 	 * @param spying true or false
 	 */
-	public void setSpying(Spy.Type type, boolean spying) {
+	public synchronized void setSpying(Spy.Type type, boolean spying) {
 		Valid.checkBoolean(type != Spy.Type.CHAT, "When setting spying channels use setSpyingChannel instead!");
 
 		if (spying)
@@ -877,6 +899,7 @@ public final class PlayerCache extends YamlSectionConfig {
 		else
 			this.spyingSectors.remove(type);
 
+		this.updateSpyIndex();
 		save();
 	}
 
@@ -905,7 +928,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param channel what channel to spy
 	 * @param spying true or false
 	 */
-	public void setSpyingChannel(Channel channel, boolean spying) {
+	public synchronized void setSpyingChannel(Channel channel, boolean spying) {
 
 		if (spying) {
 			this.spyingSectors.add(Spy.Type.CHAT);
@@ -916,9 +939,18 @@ public final class PlayerCache extends YamlSectionConfig {
 			this.spyingChannels.remove(channel.getName());
 		}
 
+		this.updateSpyIndex();
 		save();
 	}
 
+	/*
+	 * Update what the player spies in the spy index if he is online
+	 */
+	private void updateSpyIndex() {
+		if (this.toPlayer() != null)
+			Spy.updateSpying(this, true);
+	}
+
 	/**
 	 * Return if player has autoresponder and its expiration date is valid
 	 *
@@ -954,7 +986,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param book
 	 * @param futureExpirationDate
 	 */
-	public void setAutoResponder(Book book, long futureExpirationDate) {
+	public synchronized void setAutoResponder(Book book, long futureExpirationDate) {
 		this.autoResponder = new Tuple<>(book, futureExpirationDate);
 
 		save();
@@ -963,7 +995,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	/**
 	 * Remove autoresponder or throw error if does not exist
 	 */
-	public void removeAutoResponder() {
+	public synchronized void removeAutoResponder() {
 		Valid.checkBoolean(this.hasAutoResponder(), "Cannot remove an auto responder player does not have");
 
 		this.autoResponder = null;
@@ -975,7 +1007,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	 *
 	 * @param conversingPlayer the conversingPlayer to set
 	 */
-	public void setConversingPlayer(@Nullable String conversingPlayer, @Nullable UUID uniqueId) {
+	public synchronized void setConversingPlayer(@Nullable String conversingPlayer, @Nullable UUID uniqueId) {
 		if (conversingPlayer == null)
 			this.conversingPlayer = null;
 		else
@@ -1002,13 +1034,11 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @param uniqueId
 	 */
 	public void removeFromMemory() {
-		synchronized (cacheMap) {
-			cacheMap.remove(this.uniqueId);
-		}
+		cacheMap.remove(this.uniqueId);
 	}
 
 	/**
-	 * @see org.mineacademy.fo.settings.YamlSectionConfig#toString()
+	 * @see java.lang.Object#toString()
 	 */
 	@Override
 	public String toString() {
@@ -1026,27 +1056,72 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @return
 	 */
 	public static PlayerCache from(Player player) {
-		synchronized (cacheMap) {
-			final UUID uniqueId = player.getUniqueId();
-			final String playerName = player.getName();
+		final UUID uniqueId = player.getUniqueId();
+		final PlayerCache cache = cacheMap.get(uniqueId);
 
-			PlayerCache cache = cacheMap.get(uniqueId);
+		if (cache != null)
+			return cache;
 
-			if (cache == null) {
-				cache = new PlayerCache(playerName, uniqueId);
+		PlayerCache newCache = preloadedCaches.remove(uniqueId);
 
-				// Add the player to our map
-				UserMap.getInstance().save(cache);
+		// Only players online before the plugin loaded were not preloaded, read their file here
+		if (newCache == null)
+			newCache = loadFromFile(player.getName(), uniqueId);
 
-				cacheMap.put(uniqueId, cache);
-			}
+		// If two threads get here at once only the first cache is kept
+		final PlayerCache otherCache = cacheMap.putIfAbsent(uniqueId, newCache);
 
-			return cache;
+		if (otherCache != null)
+			return otherCache;
+
+		// Add the player to our map
+		UserMap.getInstance().save(newCache);
+
+		if (newCache.toPlayer() != null) {
+			newCache.indexChannels(true);
+
+			Spy.updateSpying(newCache, true);
 		}
+
+		return newCache;
 	}
 
 	/**
-	 * Attempts to get a player cache from name or nick, from data.db or database
+	 * Read the player's data from his file before he joins so that
+	 * {@link #from(Player)} does not have to touch the disk
+	 *
+	 * @param playerName
+	 * @param uniqueId
+	 */
+	public static void preload(String playerName, UUID uniqueId) {
+		Valid.checkAsync("Preloading player cache must be called async!");
+
+		if (!cacheMap.containsKey(uniqueId))
+			preloadedCaches.put(uniqueId, loadFromFile(playerName, uniqueId));
+	}
+
+	/**
+	 * Forget the data read by {@link #preload(String, UUID)} when the player did not join after all
+	 *
+	 * @param uniqueId
+	 */
+	public static void discardPreloaded(UUID uniqueId) {
+		preloadedCaches.remove(uniqueId);
+	}
+
+	/*
+	 * Create a new cache with data from the player's file
+	 */
+	private static PlayerCache loadFromFile(String playerName, UUID uniqueId) {
+		final PlayerCache cache = new PlayerCache(playerName, uniqueId);
+
+		cache.loadFromData(PlayerDataStore.getInstance().load(uniqueId));
+
+		return cache;
+	}
+
+	/**
+	 * Attempts to get a player cache from name or nick, from the players folder or database
 	 * Due to blocking call we handle stuff in a synced callback
 	 *
 	 * @param nameOrNick
@@ -1101,17 +1176,18 @@ public final class PlayerCache extends YamlSectionConfig {
 			final UUID uniqueId = localRecord.getUniqueId();
 			final SerializedMap finalData = remoteData;
 
-			Common.runLater(() -> {
-				PlayerCache cache = cacheMap.get(uniqueId);
+			// Read the file here rather than on the main thread
+			final PlayerCache loadedCache = cacheMap.containsKey(uniqueId) ? null : loadFromFile(name, uniqueId);
 
-				if (cache == null) {
-					cache = new PlayerCache(name, uniqueId);
+			Common.runLater(() -> {
+				final PlayerCache cache = cacheMap.computeIfAbsent(uniqueId, id -> {
+					final PlayerCache newCache = loadedCache != null ? loadedCache : new PlayerCache(name, id);
 
 					if (finalData != null)
-						cache.loadFromData(finalData);
+						newCache.loadFromData(finalData);
 
-					cacheMap.put(uniqueId, cache);
-				}
+					return newCache;
+				});
 
 				syncCallback.accept(cache);
 			});
@@ -1119,7 +1195,7 @@ public final class PlayerCache extends YamlSectionConfig {
 	}
 
 	/**
-	 * Attempts to get a player cache from name or nick, from data.db or database
+	 * Attempts to get a player cache from name or nick, from the players folder or database
 	 * Due to blocking call we handle stuff in a synced callback
 	 *
 	 * @param nameOrNick
@@ -1132,15 +1208,19 @@ public final class PlayerCache extends YamlSectionConfig {
 
 		if (MySQL.ENABLED) {
 			Common.runAsync(() -> {
-				final Map<Record, SerializedMap> datas = Database.getInstance().getDatas();
+				final List<Tuple<Record, SerializedMap>> datas = new ArrayList<>();
+
+				// Skip players without data right away so we do not keep them in memory
+				Database.getInstance().visitDatas((record, data) -> {
+					if (!data.isEmpty() && !"{}".equals(data.serialize().toString()))
+						datas.add(new Tuple<>(record, data));
+				});
 
 				Common.runLater(() -> {
-					for (final Map.Entry<Record, SerializedMap> entry : datas.entrySet()) {
-						final Record record = entry.getKey();
-						final SerializedMap data = entry.getValue();
+					for (final Tuple<Record, SerializedMap> tuple : datas) {
+						final Record record = tuple.getKey();
 
-						if (!data.isEmpty() && !"{}".equals(data.serialize().toString()))
-							caches.add(loadOrUpdateCache(record.getName(), record.getUniqueId(), data));
+						caches.add(loadOrUpdateCache(record.getName(), record.getUniqueId(), tuple.getValue()));
 					}
 
 					Collections.sort(caches, (first, second) -> first.getPlayerName().compareTo(second.getPlayerName()));
@@ -1163,7 +1243,7 @@ public final class PlayerCache extends YamlSectionConfig {
 					else {
 						final String name = record.getName();
 
-						caches.add(new PlayerCache(name, uuid));
+						caches.add(loadFromFile(name, uuid));
 					}
 				}
 
@@ -1185,27 +1265,18 @@ public final class PlayerCache extends YamlSectionConfig {
 	 * @return
 	 */
 	public static PlayerCache loadOrUpdateCache(String playerName, UUID uniqueId, SerializedMap data) {
-		synchronized (cacheMap) {
-			PlayerCache cache = cacheMap.get(uniqueId);
-
-			if (cache == null) {
-				cache = new PlayerCache(playerName, uniqueId);
+		final PlayerCache cache = cacheMap.computeIfAbsent(uniqueId, id -> new PlayerCache(playerName, id));
 
-				cacheMap.put(uniqueId, cache);
-			}
-
-			cache.loadFromData(data);
+		cache.updateFromData(data);
 
-			return cache;
-		}
+		return cache;
 	}
 
 	/**
 	 * Clear das cache map
 	 */
 	public static void clear() {
-		synchronized (cacheMap) {
-			cacheMap.clear();
-		}
+		cacheMap.clear();
+		preloadedCaches.clear();
 	}
 }
@@ -1,14 +1,13 @@
 package org.mineacademy.chatcontrol;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.UUID;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -45,7 +44,7 @@ public final class SenderCache {
 	/**
 	 * The internal sender map
 	 */
-	private static volatile Map<String, SenderCache> cacheMap = new HashMap<>();
+	private static final Map<String, SenderCache> cacheMap = new ConcurrentHashMap<>();
 
 	/**
 	 * The sender name
@@ -53,10 +52,15 @@ public final class SenderCache {
 	@Getter
 	private final String senderName;
 
+	/**
+	 * How many last outputs of each type we remember
+	 */
+	private static final int HISTORY_SIZE = 100;
+
 	/**
 	 * Sender's last communication
 	 */
-	private final Map<Log.Type, Queue<Output>> lastCommunication = new HashMap<>();
+	private final Map<Log.Type, OutputHistory> lastCommunication = new ConcurrentHashMap<>();
 
 	/**
 	 * Stores last packets sent, caught by ProtocolLib
@@ -186,7 +190,9 @@ public final class SenderCache {
 	 * @return
 	 */
 	public List<Output> getLastOutputs(Log.Type type, int amountInHistory, @Nullable Channel channel) {
-		return filterOutputs(type, channel, amountInHistory, null);
+		final OutputHistory history = this.lastCommunication.get(type);
+
+		return history != null ? history.getLast(amountInHistory, channel) : new ArrayList<>();
 	}
 
 	/**
@@ -198,45 +204,23 @@ public final class SenderCache {
 	 * @return
 	 */
 	public List<Output> getOutputsAfter(Log.Type type, long timestamp, @Nullable Channel channel) {
-		return filterOutputs(type, channel, -1, output -> output.getTime() >= timestamp);
+		final OutputHistory history = this.lastCommunication.get(type);
+
+		return history != null ? history.getLast(history.countAfter(timestamp, channel), channel) : new ArrayList<>();
 	}
 
-	/*
-	 * Return a list of inputs by the given type, if the type is chat then also from the given channel,
-	 * maximum of the given limit and matching the given filter
+	/**
+	 * Return how many outputs were issued on or after the given date
+	 *
+	 * @param type
+	 * @param timestamp
+	 * @param channel
+	 * @return
 	 */
-	private List<Output> filterOutputs(Log.Type type, @Nullable Channel channel, int limit, @Nullable Predicate<Output> filter) {
-		final Queue<Output> allOutputs = lastCommunication.get(type);
-		final List<Output> listedOutputs = new ArrayList<>();
-
-		if (allOutputs != null) {
-			final Output[] outputArray = allOutputs.toArray(new Output[allOutputs.size()]);
-
-			// Start from the last output
-			for (int i = allOutputs.size() - 1; i >= 0; i--) {
-				final Output output = outputArray[i];
-
-				// Return if channels set but not equal
-				if (output == null)
-					continue;
-
-				if (output.getChannel() != null && channel != null && !output.getChannel().equals(channel.getName()))
-					continue;
-
-				if (limit != -1 && listedOutputs.size() >= limit)
-					break;
+	public int countOutputsAfter(Log.Type type, long timestamp, @Nullable Channel channel) {
+		final OutputHistory history = this.lastCommunication.get(type);
 
-				if (filter != null && !filter.test(output))
-					break;
-
-				listedOutputs.add(output);
-			}
-		}
-
-		// Needed to reverse the entire list now
-		Collections.reverse(listedOutputs);
-
-		return listedOutputs;
+		return history != null ? history.countAfter(timestamp, channel) : 0;
 	}
 
 	/**
@@ -262,11 +246,9 @@ public final class SenderCache {
 	 * Internal caching handler method
 	 */
 	private void record(Log.Type type, String input, @Nullable Channel channel) {
-		final Queue<Output> queue = lastCommunication.getOrDefault(type, new LimitedQueue<>(100));
-		final Output record = new Output(System.currentTimeMillis(), input, channel == null ? null : channel.getName());
-
-		queue.add(record);
-		lastCommunication.put(type, queue);
+		this.lastCommunication
+				.computeIfAbsent(type, key -> new OutputHistory(HISTORY_SIZE))
+				.add(new Output(System.currentTimeMillis(), input, channel == null ? null : channel.getName()));
 	}
 
 	/**
@@ -409,6 +391,104 @@ public final class SenderCache {
 		}
 	}
 
+	/**
+	 * Holds the last outputs of one type in a fixed size ring, newest last
+	 */
+	private static final class OutputHistory {
+
+		/**
+		 * The outputs, the oldest is overwritten when full
+		 */
+		private final Output[] outputs;
+
+		/**
+		 * The times of {@link #outputs} so that counting does not need to touch them
+		 */
+		private final long[] times;
+
+		/**
+		 * Where the next output is written
+		 */
+		private int head;
+
+		/**
+		 * How many outputs we hold
+		 */
+		private int size;
+
+		/*
+		 * Create a new history holding up to the given amount of outputs
+		 */
+		private OutputHistory(int capacity) {
+			this.outputs = new Output[capacity];
+			this.times = new long[capacity];
+		}
+
+		/*
+		 * Remember the output, forgetting the oldest one if full
+		 */
+		private synchronized void add(Output output) {
+			this.outputs[this.head] = output;
+			this.times[this.head] = output.getTime();
+
+			this.head = (this.head + 1) % this.outputs.length;
+			this.size = Math.min(this.size + 1, this.outputs.length);
+		}
+
+		/*
+		 * Return up to the given amount of newest outputs from the channel, oldest first
+		 */
+		private synchronized List<Output> getLast(int limit, @Nullable Channel channel) {
+			final Output[] found = new Output[Math.max(0, Math.min(limit, this.size))];
+			int count = 0;
+
+			for (int i = 0; i < this.size && count < found.length; i++) {
+				final Output output = this.outputs[this.indexFromNewest(i)];
+
+				if (isFrom(output, channel))
+					found[found.length - ++count] = output;
+			}
+
+			return new ArrayList<>(Arrays.asList(found).subList(found.length - count, found.length));
+		}
+
+		/*
+		 * Return how many newest outputs from the channel were issued on or after the given date
+		 */
+		private synchronized int countAfter(long timestamp, @Nullable Channel channel) {
+			int count = 0;
+
+			for (int i = 0; i < this.size; i++) {
+				final int index = this.indexFromNewest(i);
+
+				if (!isFrom(this.outputs[index], channel))
+					continue;
+
+				// Outputs are in order, all others are older
+				if (this.times[index] < timestamp)
+					break;
+
+				count++;
+			}
+
+			return count;
+		}
+
+		/*
+		 * Return the array index of the output the given amount of places before the newest
+		 */
+		private int indexFromNewest(int offset) {
+			return (this.head - 1 - offset + this.outputs.length) % this.outputs.length;
+		}
+
+		/*
+		 * Return true if the output has no channel or it equals the given one if set
+		 */
+		private static boolean isFrom(Output output, @Nullable Channel channel) {
+			return output.getChannel() == null || channel == null || output.getChannel().equals(channel.getName());
+		}
+	}
+
 	/* ------------------------------------------------------------------------------- */
 	/* Static */
 	/* ------------------------------------------------------------------------------- */
@@ -419,9 +499,7 @@ public final class SenderCache {
 	 * @return
 	 */
 	public static Collection<SenderCache> getCaches() {
-		synchronized (cacheMap) {
-			return cacheMap.values();
-		}
+		return cacheMap.values();
 	}
 
 	/**
@@ -441,16 +519,9 @@ public final class SenderCache {
 	 * @return
 	 */
 	public static SenderCache from(String senderName) {
-		synchronized (cacheMap) {
-			SenderCache cache = cacheMap.get(senderName);
+		final SenderCache cache = cacheMap.get(senderName);
 
-			if (cache == null) {
-				cache = new SenderCache(senderName);
-
-				cacheMap.put(senderName, cache);
-			}
-
-			return cache;
-		}
+		// Avoid locking the map on the hot path where the cache already exists
+		return cache != null ? cache : cacheMap.computeIfAbsent(senderName, SenderCache::new);
 	}
 }
@@ -16,6 +16,7 @@ import org.bukkit.entity.Player;
 import org.mineacademy.chatcontrol.model.Database;
 import org.mineacademy.chatcontrol.model.Mail;
 import org.mineacademy.chatcontrol.model.Mail.Recipient;
+import org.mineacademy.chatcontrol.model.PlayerDataStore;
 import org.mineacademy.chatcontrol.settings.Settings;
 import org.mineacademy.chatcontrol.settings.Settings.MySQL;
 import org.mineacademy.fo.Common;
@@ -129,40 +130,29 @@ public final class ServerCache extends YamlConfig {
 	}
 
 	/*
-	 * Player player data over limit
+	 * Move players from data.db to their own files, then remove player data over limit
 	 */
 	private void cleanPlayers() {
-		final boolean cleanInactive = !Settings.CLEAR_DATA_IF_INACTIVE.getRaw().equals("0");
-		final long threshold = System.currentTimeMillis() - (Settings.CLEAR_DATA_IF_INACTIVE.getTimeSeconds() * 1000);
-		int cleanedCount = 0;
-
-		for (final String rawUUID : getMap("Players").keySet()) {
-
-			// Verify UUID validity
-			UUID.fromString(rawUUID);
-
-			// Empty / no data
-			if (getMap("Players." + rawUUID).isEmpty()) {
-				getConfig().set("Players." + rawUUID, null);
-
-				cleanedCount++;
-				continue;
-			}
+		final PlayerDataStore store = PlayerDataStore.getInstance();
+		final SerializedMap players = getMap("Players");
 
-			// Inactive
-			final long lastActive = getLong("Players." + rawUUID + ".Last_Active", -1L);
+		if (!players.isEmpty()) {
+			Common.log("Moving data of " + Common.plural(players.size(), "player") + " from data.db to the players folder...");
 
-			if (cleanInactive && (lastActive == -1 || lastActive < threshold)) {
-				getConfig().set("Players." + rawUUID, null);
+			for (final String rawUUID : players.keySet())
+				store.save(UUID.fromString(rawUUID), getMap("Players." + rawUUID));
 
-				cleanedCount++;
-			}
+			getConfig().set("Players", null);
+			save();
 		}
 
-		if (cleanedCount > 0) {
-			Common.log("Cleaned data of " + Common.plural(cleanedCount, "inactive player") + ".");
+		final boolean cleanInactive = !Settings.CLEAR_DATA_IF_INACTIVE.getRaw().equals("0");
 
-			save();
+		if (cleanInactive) {
+			final int cleanedCount = store.deleteInactive(System.currentTimeMillis() - (Settings.CLEAR_DATA_IF_INACTIVE.getTimeSeconds() * 1000));
+
+			if (cleanedCount > 0)
+				Common.log("Cleaned data of " + Common.plural(cleanedCount, "inactive player") + ".");
 		}
 	}
 
@@ -1,11 +1,13 @@
 package org.mineacademy.chatcontrol;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -16,6 +18,7 @@ import org.mineacademy.fo.Common;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 /**
@@ -27,7 +30,12 @@ public final class SyncedCache {
 	/**
 	 * The internal map
 	 */
-	private static volatile Map<String, SyncedCache> cacheMap = new HashMap<>();
+	private static final Map<String, SyncedCache> cacheMap = new ConcurrentHashMap<>();
+
+	/**
+	 * The same caches by the player's unique ID
+	 */
+	private static final Map<UUID, SyncedCache> uniqueIdMap = new ConcurrentHashMap<>();
 
 	/**
 	 * The player name
@@ -75,12 +83,21 @@ public final class SyncedCache {
 	 */
 	private final Map<String, Channel.Mode> channels;
 
+	/**
+	 * The data this cache was made from, to tell if it changed
+	 */
+	@Getter(AccessLevel.NONE)
+	private final String json;
+
 	/*
 	 * Create a synced cache from the given data map
 	 */
-	private SyncedCache(String playerName, SerializedMap data) {
+	private SyncedCache(String playerName, String json) {
+		final SerializedMap data = SerializedMap.fromJson(json);
+
 		Valid.checkBoolean(!data.isEmpty(), "Cannot decompile empty data!");
 
+		this.json = json;
 		this.playerName = playerName;
 		this.serverName = data.getString("Server");
 		this.uniqueId = data.get("UUID", UUID.class);
@@ -161,13 +178,7 @@ public final class SyncedCache {
 	 * @return
 	 */
 	public static boolean isPlayerConnected(UUID playerUUID) {
-		synchronized (cacheMap) {
-			for (final SyncedCache cache : cacheMap.values())
-				if (cache.getUniqueId().equals(playerUUID))
-					return true;
-
-			return false;
-		}
+		return uniqueIdMap.containsKey(playerUUID);
 	}
 
 	/**
@@ -177,23 +188,22 @@ public final class SyncedCache {
 	 * @return
 	 */
 	public static boolean doesServerExist(String serverName) {
-		synchronized (cacheMap) {
-			for (final SyncedCache cache : cacheMap.values())
-				if (cache.getServerName().equalsIgnoreCase(serverName))
-					return true;
+		for (final SyncedCache cache : cacheMap.values())
+			if (cache.getServerName().equalsIgnoreCase(serverName))
+				return true;
 
-			return false;
-		}
+		return false;
 	}
 
+	/**
+	 * Return the synced cache (or null) from the player's unique ID
+	 *
+	 * @param playerUUID
+	 * @return
+	 */
+	@Nullable
 	public static SyncedCache fromUUID(UUID playerUUID) {
-		synchronized (cacheMap) {
-			for (final SyncedCache cache : cacheMap.values())
-				if (cache.getUniqueId().equals(playerUUID))
-					return cache;
-
-			return null;
-		}
+		return uniqueIdMap.get(playerUUID);
 	}
 
 	/**
@@ -219,14 +229,12 @@ public final class SyncedCache {
 	 * @return
 	 */
 	public static Set<String> getServers() {
-		synchronized (cacheMap) {
-			final Set<String> servers = new HashSet<>();
+		final Set<String> servers = new HashSet<>();
 
-			for (final SyncedCache cache : getCaches())
-				servers.add(cache.getServerName());
+		for (final SyncedCache cache : getCaches())
+			servers.add(cache.getServerName());
 
-			return servers;
-		}
+		return servers;
 	}
 
 	/**
@@ -235,27 +243,48 @@ public final class SyncedCache {
 	 * @return
 	 */
 	public static Collection<SyncedCache> getCaches() {
-		synchronized (cacheMap) {
-			return cacheMap.values();
-		}
+		return cacheMap.values();
 	}
 
 	/**
-	 * Retrieve (or create) a sender cache
+	 * Update caches from the given player name to data JSON map, parsing
+	 * only players whose data changed and removing those no longer present
 	 *
-	 * @param senderName
-	 * @return
+	 * @param data
 	 */
 	public static void upload(SerializedMap data) {
-		synchronized (cacheMap) {
-			cacheMap.clear();
+		final Set<String> playerNames = new HashSet<>();
+		final Set<UUID> uniqueIds = new HashSet<>();
+		final List<SyncedCache> changedCaches = new ArrayList<>();
+
+		for (final Map.Entry<String, Object> entry : data.entrySet()) {
+			final String playerName = entry.getKey();
+			final String json = entry.getValue().toString();
+			SyncedCache cache = cacheMap.get(playerName);
 
-			for (final Map.Entry<String, Object> entry : data.entrySet()) {
-				final String playerName = entry.getKey();
-				final SerializedMap playerData = SerializedMap.fromJson(entry.getValue().toString());
+			// Only parse players who joined or whose data changed
+			if (cache == null || !cache.json.equals(json)) {
+				cache = new SyncedCache(playerName, json);
 
-				cacheMap.put(playerName, new SyncedCache(playerName, playerData));
+				changedCaches.add(cache);
 			}
+
+			playerNames.add(playerName);
+			uniqueIds.add(cache.getUniqueId());
+		}
+
+		if (changedCaches.isEmpty() && playerNames.size() == cacheMap.size())
+			return;
+
+		// Update entries in place so that readers never see the map empty, only uploads lock
+		synchronized (cacheMap) {
+			for (final SyncedCache cache : changedCaches) {
+				cacheMap.put(cache.getPlayerName(), cache);
+				uniqueIdMap.put(cache.getUniqueId(), cache);
+			}
+
+			cacheMap.keySet().retainAll(playerNames);
+			uniqueIdMap.keySet().retainAll(uniqueIds);
 		}
 	}
 }
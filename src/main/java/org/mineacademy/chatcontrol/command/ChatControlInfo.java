@@ -44,7 +44,7 @@ public final class ChatControlInfo extends ChatControlSubCommand {
 			pollCache(args[1], cache -> {
 				if ("cache".equals(param)) {
 					tellNoPrefix(Lang.of("Commands.Info.Cache_Player", cache.getPlayerName()));
-					tellNoPrefix(Lang.of("Commands.Info.Cache_Location") + (MySQL.ENABLED ? "MySQL" : "data.db"));
+					tellNoPrefix(Lang.of("Commands.Info.Cache_Location") + (MySQL.ENABLED ? "MySQL" : "players folder"));
 					tellNoPrefix(cache.serialize().toStringFormatted()
 							.replace("\t", "    ")
 							.replace("'", "")
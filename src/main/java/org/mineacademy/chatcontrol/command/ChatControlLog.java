@@ -25,7 +25,6 @@ import org.mineacademy.chatcontrol.settings.Lang;
 import org.mineacademy.chatcontrol.settings.Settings;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.TimeUtil;
-import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.model.ChatPaginator;
 import org.mineacademy.fo.model.SimpleComponent;
@@ -33,6 +32,11 @@ import org.mineacademy.fo.plugin.SimplePlugin;
 
 public final class ChatControlLog extends ChatControlSubCommand {
 
+	/**
+	 * The maximum amount of logs we show at once
+	 */
+	private static final int MAX_RESULTS = 1000;
+
 	public ChatControlLog() {
 		super("log/l");
 
@@ -79,57 +83,18 @@ public final class ChatControlLog extends ChatControlSubCommand {
 						Lang.of("Commands.Invalid_Type", "{enum}", Common.join(Settings.Log.APPLY_ON)));
 
 		final String line = joinArgs(1);
+		final SerializedMap params = mapParams(type, line);
+		final Log.Query query = createQuery(type, params);
 
 		tellInfo(Lang.of("Commands.Compiling_Data"));
 
 		// Read logs async, then send them to player on the main thread
-		syncCallback(Log::readLogs, logs -> {
-
-			// Remove those we do not want
-			if (type != null)
-				logs.removeIf(log -> log.getType() != type);
+		syncCallback(() -> Log.readLogs(query), logs -> {
+			checkBoolean(!logs.isEmpty() || !params.isEmpty(), Lang.ofScript("Commands.Log.No_Logs", SerializedMap.of("hasType", type != null), type != null ? type.getLocalized() : ""));
 
-			checkBoolean(!logs.isEmpty(), Lang.ofScript("Commands.Log.No_Logs", SerializedMap.of("hasType", type != null), type != null ? type.getLocalized() : ""));
-
-			final SerializedMap params = mapParams(type, line);
 			final List<SimpleComponent> pages = new ArrayList<>();
 
 			for (final Log log : logs) {
-
-				if (params.containsKey("player") && !params.getString("player").equalsIgnoreCase(log.getSender()))
-					continue;
-
-				if (params.containsKey("before") && (System.currentTimeMillis() - params.getLong("before")) < log.getDate())
-					continue;
-
-				if (params.containsKey("in") && (System.currentTimeMillis() - params.getLong("in")) > log.getDate())
-					continue;
-
-				if (params.containsKey("channel") && !params.getString("channel").equalsIgnoreCase(log.getChannelName()))
-					continue;
-
-				if (params.containsKey("label") && !params.getString("label").equalsIgnoreCase(log.getContent().split(" ")[0]))
-					continue;
-
-				if (params.containsKey("to") && !Valid.isInList(params.getString("to"), log.getReceivers()))
-					continue;
-
-				if ((!params.containsKey("rule") && log.getRuleName() != null) || (!params.containsKey("group") && log.getRuleGroupName() != null))
-					continue;
-
-				if ((params.containsKey("rule") && log.getRuleName() == null) || (params.containsKey("group") && log.getRuleGroupName() == null))
-					continue;
-
-				if (params.containsKey("rule") && "*".equals(params.getString("rule"))) {
-					// ok
-				} else if (params.containsKey("rule") && !params.getString("rule").equalsIgnoreCase(log.getRuleName()))
-					continue;
-
-				if (params.containsKey("group") && "*".equals(params.getString("group"))) {
-					// ok
-				} else if (params.containsKey("group") && !params.getString("group").equalsIgnoreCase(log.getRuleGroupName()))
-					continue;
-
 				final SimpleComponent component = SimpleComponent.of("&7" + TimeUtil.getFormattedDateMonth(log.getDate()));
 
 				component.append(" &f" + log.getSender());
@@ -251,6 +216,42 @@ public final class ChatControlLog extends ChatControlSubCommand {
 		});
 	}
 
+	/*
+	 * Turn parameters into a log search, only the newest logs are
+	 * read to keep memory low, use before: to see older ones
+	 */
+	private Log.Query createQuery(@Nullable Log.Type type, SerializedMap params) {
+		final Log.Query query = new Log.Query()
+				.type(type)
+				.limit(MAX_RESULTS);
+
+		if (params.containsKey("player"))
+			query.sender(params.getString("player"));
+
+		if (params.containsKey("before"))
+			query.maxDate(System.currentTimeMillis() - params.getLong("before"));
+
+		if (params.containsKey("in"))
+			query.minDate(System.currentTimeMillis() - params.getLong("in"));
+
+		if (params.containsKey("channel"))
+			query.channel(params.getString("channel"));
+
+		if (params.containsKey("label"))
+			query.label(params.getString("label"));
+
+		if (params.containsKey("to"))
+			query.receiver(params.getString("to"));
+
+		if (params.containsKey("rule"))
+			query.rule(params.getString("rule"));
+
+		if (params.containsKey("group"))
+			query.group(params.getString("group"));
+
+		return query;
+	}
+
 	/*
 	 * Map chat key:value pairs parameters
 	 */
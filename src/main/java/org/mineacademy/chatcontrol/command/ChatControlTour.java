@@ -229,9 +229,12 @@ public final class ChatControlTour extends ChatControlSubCommand {
 					"  in your formats such as {player_rank} or even by players",
 					"  in the chat such as 'I hold and [item]' using JavaScript.",
 					" ",
-					" - &7data.db file: &fWe store player data here, such as",
+					" - &7players/ folder: &fWe store player data here, such as",
 					"  what channels players are in, and more. Do not edit.",
 					" ",
+					" - &7data.db file: &fStores mails, regions and server",
+					"  wide data. Do not edit.",
+					" ",
 					" - &7error.log file: &fNot created unless there's a problem",
 					"  with our plugin. Send this to us and we'll fix it!",
 					" ",
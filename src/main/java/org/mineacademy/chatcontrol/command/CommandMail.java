@@ -446,7 +446,7 @@ public final class CommandMail extends ChatControlCommand implements Listener {
 			if ("autor".equals(args[0]))
 				return completeLastWord("view", "off", "3 hours", "7 days");
 			else if ("send".equals(args[0]))
-				return completeLastWordPlayerNames();
+				return completeLastWord(UserMap.getInstance().getNamesStartingWith(args[1], 50));
 
 		return NO_COMPLETE;
 	}
@@ -1,7 +1,5 @@
 package org.mineacademy.chatcontrol.listener;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -15,9 +13,11 @@ import org.mineacademy.chatcontrol.SyncedCache;
 import org.mineacademy.chatcontrol.model.Announce;
 import org.mineacademy.chatcontrol.model.Announce.AnnounceType;
 import org.mineacademy.chatcontrol.model.Bungee.BungeePacket;
+import org.mineacademy.chatcontrol.model.BungeeCodec;
 import org.mineacademy.chatcontrol.model.Channel;
 import org.mineacademy.chatcontrol.model.ListPlayers;
 import org.mineacademy.chatcontrol.model.Mail;
+import org.mineacademy.chatcontrol.model.PacketDeduplicator;
 import org.mineacademy.chatcontrol.model.Packets;
 import org.mineacademy.chatcontrol.model.Players;
 import org.mineacademy.chatcontrol.model.Spy;
@@ -63,9 +63,9 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 	 * get duplicated. We simply store them here and ignore same messages sent to players
 	 * right after one another.
 	 *
-	 * Message : Timestamp
+	 * We keep a hash of the last few thousand packets only, see {@link PacketDeduplicator}.
 	 */
-	private final Map<String, Long> redisDeduplicator = new HashMap<>();
+	private final PacketDeduplicator redisDeduplicator = new PacketDeduplicator(4096, 100);
 
 	/*
 	 * The presently read packet
@@ -104,7 +104,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final String senderName = input.readString();
 			final UUID senderUUID = input.readUUID();
 			final String message = input.readString();
-			final SimpleComponent component = createComponent(input.readString());
+			final SimpleComponent component = createComponent(BungeeCodec.decompress(input.readString()));
 			final String consoleLog = input.readString();
 			final boolean hasMuteBypass = input.readBoolean();
 			final boolean hasIgnoreBypass = input.readBoolean();
@@ -112,7 +112,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 
 			final Channel channel = Channel.findChannel(channelName);
 
-			if (Settings.Channels.ENABLED && channel != null && channel.isBungee() && canSendMessage(channelName + senderName + consoleLog + hasMuteBypass + hasIgnoreBypass + hasLogBypass + message))
+			if (Settings.Channels.ENABLED && channel != null && channel.isBungee() && canSendMessage(channelName, senderName, consoleLog, hasMuteBypass, hasIgnoreBypass, hasLogBypass, message))
 				channel.processBungeeMessage(senderName, senderUUID, message, component, consoleLog, hasMuteBypass, hasIgnoreBypass, hasLogBypass);
 		}
 
@@ -128,10 +128,10 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final Spy.Type type = input.readEnum(Spy.Type.class);
 			final String channelName = input.readString();
 			final String message = input.readString();
-			final SimpleComponent component = createComponent(input.readString());
-			final Set<UUID> ignoredPlayers = Common.convertSet(Remain.fromJsonList(input.readString()), UUID::fromString);
+			final SimpleComponent component = createComponent(BungeeCodec.decompress(input.readString()));
+			final Set<UUID> ignoredPlayers = BungeeCodec.decodeUniqueIds(input.readString());
 
-			if (canSendMessage(this.senderUid.toString() + type + channelName + message + ignoredPlayers))
+			if (canSendMessage(this.senderUid, type, channelName, message, ignoredPlayers))
 				Spy.broadcastFromBungee(type, channelName, message, component, ignoredPlayers);
 		}
 
@@ -142,7 +142,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final CompMaterial material = input.readEnum(CompMaterial.class);
 			final Player receiver = Remain.getPlayerByUUID(receiverUid);
 
-			if (receiver != null && receiver.isOnline() && canSendMessage(this.senderUid + receiverUid.toString() + toggle.getKey() + material.toString() + message))
+			if (receiver != null && receiver.isOnline() && canSendMessage(this.senderUid, receiverUid, toggle.getKey(), material, message))
 				sendToast(player, toggle, message, material);
 		}
 
@@ -198,13 +198,13 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 
 		else if (this.packet == BungeePacket.ANNOUNCEMENT) {
 			final AnnounceType type = input.readEnum(AnnounceType.class);
-			final String message = input.readString();
-			final SerializedMap params = input.readMap();
+			final String message = BungeeCodec.decompress(input.readString());
+			final SerializedMap params = SerializedMap.fromJson(BungeeCodec.decompress(input.readString()));
 
 			if (params.containsKey("server") && !params.getString("server").equals(Remain.getServerName()))
 				return;
 
-			if (canSendMessage(this.senderUid + type.toString() + message + message))
+			if (canSendMessage(this.senderUid, type, message))
 				Announce.sendFromBungee(type, message, params);
 		}
 
@@ -212,7 +212,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final String server = input.readString();
 			final String command = Common.colorize(input.readString().replace("{server_name}", server));
 
-			if (server.equalsIgnoreCase(Remain.getServerName()) && canSendMessage(this.senderUid + server + command))
+			if (server.equalsIgnoreCase(Remain.getServerName()) && canSendMessage(this.senderUid, server, command))
 				Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
 		}
 
@@ -229,7 +229,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final SerializedMap mergedData = input.readMap();
 			final CommandSender requestingPlayer = requester.equals(FoConstants.NULL_UUID) ? Bukkit.getConsoleSender() : Remain.getPlayerByUUID(requester);
 
-			if (requestingPlayer != null && canSendMessage(this.senderUid + requester.toString() + mergedData.toJson()))
+			if (requestingPlayer != null && canSendMessage(this.senderUid, requester, mergedData.toJson()))
 				ListPlayers.listPlayersFromBungee(requestingPlayer, mergedData);
 		}
 
@@ -237,7 +237,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final String announceMessage = input.readString();
 			Players.clearChatFromBungee(announceMessage.isEmpty());
 
-			if (!announceMessage.isEmpty() && canSendMessage(this.senderUid + announceMessage))
+			if (!announceMessage.isEmpty() && canSendMessage(this.senderUid, announceMessage))
 				Messenger.broadcastAnnounce(announceMessage);
 		}
 
@@ -246,7 +246,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final boolean reachBypass = input.readBoolean();
 			final SimpleComponent component = SimpleComponent.deserialize(input.readMap());
 
-			if (canSendMessage(senderId.toString() + reachBypass + Remain.toJson(component.getTextComponent())))
+			if (canSendMessage(senderId, reachBypass, Remain.toJson(component.getTextComponent())))
 				Players.showMe(senderId, reachBypass, component);
 		}
 
@@ -262,14 +262,14 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final String permission = input.readString();
 			final SimpleComponent component = SimpleComponent.deserialize(input.readMap());
 
-			if (canSendMessage(this.senderUid + permission + Remain.toJson(component.getTextComponent())))
+			if (canSendMessage(this.senderUid, permission, Remain.toJson(component.getTextComponent())))
 				Players.broadcastWithPermission(permission, component);
 		}
 
 		else if (this.packet == BungeePacket.PLAIN_BROADCAST) {
 			final String plainMessage = input.readString();
 
-			if (canSendMessage(this.senderUid + plainMessage))
+			if (canSendMessage(this.senderUid, plainMessage))
 				for (final Player online : Remain.getOnlinePlayers())
 					Common.tellNoPrefix(online, plainMessage);
 		}
@@ -279,7 +279,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final String message = input.readString();
 			final Player online = Remain.getPlayerByUUID(receiver);
 
-			if (online != null && canSendMessage(this.senderUid + receiver.toString() + message))
+			if (online != null && canSendMessage(this.senderUid, receiver, message))
 				Common.tellNoPrefix(online, message);
 		}
 
@@ -293,7 +293,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 
 				final SimpleComponent component = SimpleComponent.deserialize(SerializedMap.fromJson(json));
 
-				if (canSendMessage(this.senderUid + receiver.toString() + Remain.toJson(component.getTextComponent())))
+				if (canSendMessage(this.senderUid, receiver, Remain.toJson(component.getTextComponent())))
 					component.send(online);
 			}
 		}
@@ -301,7 +301,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 		else if (this.packet == BungeePacket.JSON_BROADCAST) {
 			final BaseComponent[] components = Remain.toComponent(input.readString());
 
-			if (canSendMessage(this.senderUid + Remain.toJson(components)))
+			if (canSendMessage(this.senderUid, Remain.toJson(components)))
 				for (final Player online : Remain.getOnlinePlayers())
 					Remain.sendComponent(online, components);
 		}
@@ -315,7 +315,7 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 			final boolean isOff = "off".equals(durationRaw);
 			final SimpleTime duration = isOff ? null : SimpleTime.from(durationRaw);
 
-			if (!canSendMessage(this.senderUid + type + object + durationRaw + announceMessage))
+			if (!canSendMessage(this.senderUid, type, object, durationRaw, announceMessage))
 				return;
 
 			if (type.equals("channel")) {
@@ -356,16 +356,8 @@ public final class BungeeListener extends org.mineacademy.fo.bungee.BungeeListen
 	 * Return true if message can be sent, same messages can only
 	 * be sent each 100ms
 	 */
-	private boolean canSendMessage(String message) {
-		final long timestamp = this.redisDeduplicator.getOrDefault(message, -1L);
-
-		if (timestamp == -1 || (System.currentTimeMillis() - timestamp) > 100) {
-			this.redisDeduplicator.put(message, System.currentTimeMillis());
-
-			return true;
-		}
-
-		return false;
+	private boolean canSendMessage(Object... parts) {
+		return this.redisDeduplicator.accept(parts);
 	}
 
 	/*
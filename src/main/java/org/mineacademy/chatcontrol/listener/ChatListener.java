@@ -23,6 +23,7 @@ import org.mineacademy.fo.Common;
 import org.mineacademy.fo.Messenger;
 import org.mineacademy.fo.PlayerUtil;
 import org.mineacademy.fo.event.SimpleListener;
+import org.mineacademy.fo.exception.EventHandledException;
 import org.mineacademy.fo.model.Tuple;
 
 import lombok.Getter;
@@ -32,8 +33,22 @@ import lombok.Getter;
  */
 public final class ChatListener extends SimpleListener<AsyncPlayerChatEvent> {
 
-	// Special workaround for concurrency issues (pressing F2 rapidly)
-	private static volatile Object LOCK = new Object();
+	/**
+	 * How many lock stripes we use to keep one player's messages in order,
+	 * must be a power of two
+	 */
+	private static final int LOCK_STRIPES = 64;
+
+	/*
+	 * Per-player lock stripes, workaround for concurrency issues (pressing F2 rapidly)
+	 * while still letting different players chat in parallel
+	 */
+	private static final Object[] LOCKS = new Object[LOCK_STRIPES];
+
+	static {
+		for (int i = 0; i < LOCK_STRIPES; i++)
+			LOCKS[i] = new Object();
+	}
 
 	/**
 	 * The singleton instance
@@ -42,9 +57,10 @@ public final class ChatListener extends SimpleListener<AsyncPlayerChatEvent> {
 	private static final ChatListener instance = new ChatListener();
 
 	/*
-	 * The active player instance
+	 * The player whose event is being handled on the current thread,
+	 * kept per thread since async chat events are fired concurrently
 	 */
-	private Player player;
+	private final ThreadLocal<Player> player = new ThreadLocal<>();
 
 	/*
 	 * Creates new listener
@@ -58,138 +74,165 @@ public final class ChatListener extends SimpleListener<AsyncPlayerChatEvent> {
 	 */
 	@Override
 	protected void execute(AsyncPlayerChatEvent event) {
-		synchronized (LOCK) {
-			final Player player = event.getPlayer();
+		final Player player = event.getPlayer();
 
-			this.player = player;
+		this.player.set(player);
 
-			final PlayerCache cache = PlayerCache.from(player);
-			final SenderCache senderCache = SenderCache.from(player);
-			final Set<Player> recipients = event.getRecipients();
-			String message = event.getMessage();
+		try {
+			synchronized (getLock(player.getUniqueId())) {
 
-			checkBoolean(!senderCache.isLoadingMySQL(), Lang.of("Data_Loading"));
-			checkPerm(Permissions.Chat.WRITE, Lang.of("Player.No_Write_Chat_Permission", Permissions.Chat.WRITE));
+				final PlayerCache cache = PlayerCache.from(player);
+				final SenderCache senderCache = SenderCache.from(player);
+				final Set<Player> recipients = event.getRecipients();
+				String message = event.getMessage();
 
-			// Newcomer
-			if (Settings.Newcomer.RESTRICT_CHAT && Newcomer.isNewcomer(player) && !Settings.Newcomer.RESTRICT_CHAT_WHITELIST.isInList(message))
-				cancel(Lang.of("Player.Newcomer_Cannot_Write"));
+				checkBoolean(!senderCache.isLoadingMySQL(), Lang.of("Data_Loading"));
+				checkPerm(Permissions.Chat.WRITE, Lang.of("Player.No_Write_Chat_Permission", Permissions.Chat.WRITE));
 
-			checkBoolean(!Common.stripColors(message).isEmpty(), Lang.of("Checker.No_Text"));
+				// Newcomer
+				if (Settings.Newcomer.RESTRICT_CHAT && Newcomer.isNewcomer(player) && !Settings.Newcomer.RESTRICT_CHAT_WHITELIST.isInList(message))
+					cancel(Lang.of("Player.Newcomer_Cannot_Write"));
 
-			// Remove recipients who can't read the message
-			for (final Iterator<Player> it = recipients.iterator(); it.hasNext();) {
-				final Player recipient = it.next();
+				checkBoolean(!Common.stripColors(message).isEmpty(), Lang.of("Checker.No_Text"));
 
-				if (!PlayerUtil.hasPerm(recipient, Permissions.Chat.READ)
-						|| (Settings.Newcomer.RESTRICT_SEEING_CHAT && Newcomer.isNewcomer(recipient))
-						|| cache.isIgnoringPart(Toggle.CHAT))
+				// Remove recipients who can't read the message
+				for (final Iterator<Player> it = recipients.iterator(); it.hasNext();) {
+					final Player recipient = it.next();
 
-					it.remove();
-			}
+					if (!PlayerUtil.hasPerm(recipient, Permissions.Chat.READ)
+							|| (Settings.Newcomer.RESTRICT_SEEING_CHAT && Newcomer.isNewcomer(recipient))
+							|| cache.isIgnoringPart(Toggle.CHAT))
+
+						it.remove();
+				}
+
+				// Auto conversation mode
+				if (cache.getConversingPlayer() != null) {
+					final Tuple<String, UUID> conversingPlayer = cache.getConversingPlayer();
 
-			// Auto conversation mode
-			if (cache.getConversingPlayer() != null) {
-				final Tuple<String, UUID> conversingPlayer = cache.getConversingPlayer();
+					if (SyncedCache.isPlayerConnected(conversingPlayer.getValue())) {
+						final String finalMessage = message;
 
-				if (SyncedCache.isPlayerConnected(conversingPlayer.getValue())) {
-					final String finalMessage = message;
+						// Must invoke the chat() method to apply rules and filtering
+						Common.runLater(() -> player.chat("/" + Settings.PrivateMessages.TELL_ALIASES.get(0) + " " + conversingPlayer.getKey() + " " + finalMessage));
 
-					// Must invoke the chat() method to apply rules and filtering
-					Common.runLater(() -> player.chat("/" + Settings.PrivateMessages.TELL_ALIASES.get(0) + " " + conversingPlayer.getKey() + " " + finalMessage));
+					} else {
+						Messenger.warn(player, Lang.of("Commands.Tell.Conversation_Offline", cache.getConversingPlayer()));
 
-				} else {
-					Messenger.warn(player, Lang.of("Commands.Tell.Conversation_Offline", cache.getConversingPlayer()));
+						Common.runLater(() -> cache.setConversingPlayer(null, null));
+					}
 
-					Common.runLater(() -> cache.setConversingPlayer(null, null));
+					cancel();
 				}
 
-				cancel();
-			}
+				// Do not use channels
+				if (!Settings.Channels.ENABLED || Settings.Channels.IGNORE_WORLDS.contains(player.getWorld().getName())) {
 
-			// Do not use channels
-			if (!Settings.Channels.ENABLED || Settings.Channels.IGNORE_WORLDS.contains(player.getWorld().getName())) {
+					// Mute
+					checkBoolean(!Mute.isChatMuted(player), Lang.of("Commands.Mute.Cannot_Chat"));
 
-				// Mute
-				checkBoolean(!Mute.isChatMuted(player), Lang.of("Commands.Mute.Cannot_Chat"));
+					final Checker checker = Checker.filterChannel(player, message, null);
 
-				final Checker checker = Checker.filterChannel(player, message, null);
+					if (checker.isCancelledSilently())
+						recipients.removeIf(recipient -> !recipient.getName().equals(player.getName()));
 
-				if (checker.isCancelledSilently())
-					recipients.removeIf(recipient -> !recipient.getName().equals(player.getName()));
+					// Update message from antispam/rules
+					message = checker.getMessage();
 
-				// Update message from antispam/rules
-				message = checker.getMessage();
+					// Apply colors
+					message = Colors.addColorsForPermsAndChat(player, message);
 
-				// Apply colors
-				message = Colors.addColorsForPermsAndChat(player, message);
+					// Remove ignored players
+					recipients.removeIf(recipient -> {
 
-				// Remove ignored players
-				recipients.removeIf(recipient -> {
+						// Prevent recipients on worlds where channels are enabled from seeing the message
+						if (Settings.Channels.ENABLED && !Settings.Channels.IGNORE_WORLDS.contains(recipient.getWorld().getName()))
+							return true;
 
-					// Prevent recipients on worlds where channels are enabled from seeing the message
-					if (Settings.Channels.ENABLED && !Settings.Channels.IGNORE_WORLDS.contains(recipient.getWorld().getName()))
-						return true;
+						if (Settings.Ignore.ENABLED && Settings.Ignore.HIDE_CHAT && !PlayerUtil.hasPerm(player, Permissions.Bypass.REACH) && PlayerCache.from(recipient).isIgnoringPlayer(player.getUniqueId()))
+							return true;
 
-					if (Settings.Ignore.ENABLED && Settings.Ignore.HIDE_CHAT && !hasPerm(Permissions.Bypass.REACH) && PlayerCache.from(recipient).isIgnoringPlayer(player.getUniqueId()))
-						return true;
+						return false;
+					});
 
-					return false;
-				});
+					// Log to file and db
+					Log.logChat(player, null, message);
 
-				// Log to file and db
-				Log.logChat(player, null, message);
+					// Update the message
+					event.setMessage(message);
 
-				// Update the message
-				event.setMessage(message);
+					return;
+				}
 
-				return;
-			}
+				final Channel writeChannel = cache.getWriteChannel();
+
+				checkPerm(Permissions.Chat.WRITE);
+				checkNotNull(writeChannel, Lang.of(Channel.canJoinAnyChannel(player) ? "Player.No_Channel" : "Player.No_Possible_Channel"));
+
+				// Prevent accidental typing
+				if (Settings.Channels.PREVENT_VANISH_CHAT && PlayerUtil.isVanished(player))
+					cancel(Lang.of("Player.Cannot_Chat_Vanished"));
+
+				// Send to channel and return the edited message
+				final Channel.Result result = writeChannel.sendMessage(player, message);
+
+				// Act as cancel at the pipeline
+				if (result.isCancelledSilently()) {
+					event.setCancelled(true);
 
-			final Channel writeChannel = cache.getWriteChannel();
+					return;
+				}
 
-			checkPerm(Permissions.Chat.WRITE);
-			checkNotNull(writeChannel, Lang.of(Channel.canJoinAnyChannel(player) ? "Player.No_Channel" : "Player.No_Possible_Channel"));
+				// Update the message for other plugins
+				event.setMessage(result.getMessage());
 
-			// Prevent accidental typing
-			if (Settings.Channels.PREVENT_VANISH_CHAT && PlayerUtil.isVanished(player))
-				cancel(Lang.of("Player.Cannot_Chat_Vanished"));
+				// Clear recipient list so that Bukkit does not send anyone the message
+				// but other plugins can still catch the event.
+				// By this time we already sent the message in our own way using interactive chat.
+				recipients.clear();
 
-			// Send to channel and return the edited message
-			final Channel.Result result = writeChannel.sendMessage(player, message);
+				// Do not log to the console by canceling event - causes incompatibilities but we want the user enough
+				final String consoleLog = result.getConsoleLog();
 
-			// Act as cancel at the pipeline
-			if (result.isCancelledSilently()) {
-				event.setCancelled(true);
+				if ("none".equalsIgnoreCase(consoleLog))
+					event.setCancelled(true);
 
-				return;
+				else
+					// Log to console, but avoid String.format crashing when % is typed
+					event.setFormat(consoleLog.replace("%", "%%"));
 			}
 
-			// Update the message for other plugins
-			event.setMessage(result.getMessage());
+		} catch (final EventHandledException ex) {
 
-			// Clear recipient list so that Bukkit does not send anyone the message
-			// but other plugins can still catch the event.
-			// By this time we already sent the message in our own way using interactive chat.
-			recipients.clear();
+			// Tell the player now while we still know who he is on this thread, then let the event be cancelled
+			if (ex.getMessages() != null)
+				for (final String message : ex.getMessages())
+					Messenger.error(player, message);
 
-			// Do not log to the console by canceling event - causes incompatibilities but we want the user enough
-			final String consoleLog = result.getConsoleLog();
+			throw new EventHandledException(ex.isCancelled());
 
-			if ("none".equalsIgnoreCase(consoleLog))
-				event.setCancelled(true);
+		} finally {
 
-			else
-				// Log to console, but avoid String.format crashing when % is typed
-				event.setFormat(consoleLog.replace("%", "%%"));
+			// Async chat threads are pooled, do not keep the player after he left
+			this.player.remove();
 		}
 	}
 
+	/*
+	 * Return the lock stripe for the given player, messages from the same
+	 * player are processed in order while others run in parallel
+	 */
+	private static Object getLock(UUID uniqueId) {
+		final int hash = uniqueId.hashCode();
+
+		return LOCKS[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+	}
+
 	/**
 	 * @see org.mineacademy.fo.event.SimpleListener#findPlayer()
 	 */
 	@Override
 	protected Player findPlayer() {
-		return this.player;
+		return this.player.get();
 	}
 }
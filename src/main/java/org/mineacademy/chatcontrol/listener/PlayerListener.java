@@ -19,7 +19,10 @@ import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerKickEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.mineacademy.chatcontrol.PlayerCache;
@@ -35,6 +38,8 @@ import org.mineacademy.chatcontrol.model.Mail.Recipient;
 import org.mineacademy.chatcontrol.model.Mute;
 import org.mineacademy.chatcontrol.model.Newcomer;
 import org.mineacademy.chatcontrol.model.Permissions;
+import org.mineacademy.chatcontrol.model.PlayerDataWriter;
+import org.mineacademy.chatcontrol.model.PlayerGrid;
 import org.mineacademy.chatcontrol.model.Players;
 import org.mineacademy.chatcontrol.model.Spy;
 import org.mineacademy.chatcontrol.operator.PlayerMessage;
@@ -112,6 +117,28 @@ public final class PlayerListener implements Listener {
 		}
 	}
 
+	/**
+	 * Read the player's data from disk while he is still logging in
+	 *
+	 * @param event
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPreLoginMonitor(AsyncPlayerPreLoginEvent event) {
+		if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED)
+			PlayerCache.preload(event.getName(), event.getUniqueId());
+	}
+
+	/**
+	 * Forget the data we read for players who were not let in after all
+	 *
+	 * @param event
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onLogin(PlayerLoginEvent event) {
+		if (event.getResult() != PlayerLoginEvent.Result.ALLOWED)
+			PlayerCache.discardPreloaded(event.getPlayer().getUniqueId());
+	}
+
 	/**
 	 * Listen for join events and perform plugin logic
 	 *
@@ -126,6 +153,9 @@ public final class PlayerListener implements Listener {
 
 		senderCache.setPendingJoin(true);
 
+		// Make ranged channels see the player before he is sorted into the grid
+		PlayerGrid.getInstance().markMoved(player);
+
 		// Reset the flag back for antibot
 		senderCache.setMovedFromJoin(false);
 
@@ -148,6 +178,10 @@ public final class PlayerListener implements Listener {
 			// Update tablist name from nick
 			Players.setTablistName(player);
 
+			// Add the player to the member index of his channels and to spies
+			cache.indexChannels(true);
+			Spy.updateSpying(cache, true);
+
 			// Remove old channels over limit
 			cache.checkLimits(player);
 
@@ -295,6 +329,10 @@ public final class PlayerListener implements Listener {
 		final PlayerCache cache = PlayerCache.from(player);
 		final SenderCache senderCache = SenderCache.from(player);
 
+		// Channels and spies only index online players
+		cache.indexChannels(false);
+		Spy.updateSpying(cache, false);
+
 		// AuthMe
 		if (Settings.Integration.AuthMe.HIDE_QUIT_MSG_IF_NOT_LOGGED && !HookManager.isLogged(player)) {
 			event.setQuitMessage(null);
@@ -313,9 +351,31 @@ public final class PlayerListener implements Listener {
 				event.setQuitMessage(null);
 			}
 
-			// And save data async
-			Common.runAsync(() -> Database.getInstance().saveCache(cache));
-		}
+			// And save data now, including changes waiting to be saved
+			PlayerDataWriter.getInstance().saveNow(cache);
+
+		} else
+			PlayerDataWriter.getInstance().discard(cache);
+	}
+
+	/**
+	 * Make ranged channels see teleported players at their new position right away
+	 *
+	 * @param event
+	 */
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onTeleport(PlayerTeleportEvent event) {
+		PlayerGrid.getInstance().markMoved(event.getPlayer());
+	}
+
+	/**
+	 * Make ranged channels see respawned players at their new position right away
+	 *
+	 * @param event
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onRespawn(PlayerRespawnEvent event) {
+		PlayerGrid.getInstance().markMoved(event.getPlayer());
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
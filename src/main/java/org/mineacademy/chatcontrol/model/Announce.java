@@ -133,7 +133,7 @@ public final class Announce {
 				};
 
 				if (sender != null)
-					BungeeUtil.tellBungee(BungeePacket.ANNOUNCEMENT, type, message, params);
+					sendBungee(type, message, params);
 			}
 		}
 
@@ -163,7 +163,7 @@ public final class Announce {
 				function = player -> image.sendToPlayer(player);
 
 				if (sender != null && imageFile != null)
-					BungeeUtil.tellBungee(BungeePacket.ANNOUNCEMENT, type, message, SerializedMap.ofArray(
+					sendBungee(type, message, SerializedMap.ofArray(
 							"height", height,
 							"imageLines", Arrays.asList(image.getLines())));
 
@@ -188,14 +188,14 @@ public final class Announce {
 					subtitle == null || subtitle.isEmpty() || "null".equals(subtitle) ? null : Variables.replace(subtitle, player));
 
 			if (sender != null)
-				BungeeUtil.tellBungee(BungeePacket.ANNOUNCEMENT, type, title + "|" + subtitle, SerializedMap.ofArray("stay", stay, "fadein", fadeIn, "fadeout", fadeOut));
+				sendBungee(type, title + "|" + subtitle, SerializedMap.ofArray("stay", stay, "fadein", fadeIn, "fadeout", fadeOut));
 		}
 
 		else if (type == AnnounceType.ACTIONBAR) {
 			function = player -> Remain.sendActionBar(player, Variables.replace(message, player));
 
 			if (sender != null)
-				BungeeUtil.tellBungee(BungeePacket.ANNOUNCEMENT, type, message, new SerializedMap());
+				sendBungee(type, message, new SerializedMap());
 
 		} else if (type == AnnounceType.BOSSBAR) {
 			final int time = params.getInteger("time", 5);
@@ -205,7 +205,7 @@ public final class Announce {
 			function = player -> Remain.sendBossbarTimed(player, Variables.replace(message, player), time, color, style);
 
 			if (sender != null)
-				BungeeUtil.tellBungee(BungeePacket.ANNOUNCEMENT, type, message, SerializedMap.ofArray("time", time, "color", color, "style", style));
+				sendBungee(type, message, SerializedMap.ofArray("time", time, "color", color, "style", style));
 		}
 
 		else if (type == AnnounceType.TOAST) {
@@ -214,7 +214,7 @@ public final class Announce {
 			function = player -> Remain.sendToast(player, Variables.replace(message, player), icon);
 
 			if (sender != null)
-				BungeeUtil.tellBungee(BungeePacket.ANNOUNCEMENT, type, message, SerializedMap.ofArray("icon", icon));
+				sendBungee(type, message, SerializedMap.ofArray("icon", icon));
 		}
 
 		if (function == null) {
@@ -253,6 +253,13 @@ public final class Announce {
 			Messenger.info(sender, Lang.of("Commands.Announce.Success_Network", serverToBroadcastOn));
 	}
 
+	/*
+	 * Send the announcement to other servers, packing large messages such as images
+	 */
+	private static void sendBungee(AnnounceType type, String message, SerializedMap params) {
+		BungeeUtil.tellBungee(BungeePacket.ANNOUNCEMENT, type, BungeeCodec.compress(message), BungeeCodec.compress(params.toJson()));
+	}
+
 	/**
 	 * For convenience sake, this models the possible parameters this command can have.
 	 */
@@ -1,5 +1,7 @@
 package org.mineacademy.chatcontrol.model;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.entity.Player;
@@ -45,12 +47,29 @@ public final class Bungee {
 	 */
 	private static final class SyncTask implements Runnable {
 
+		/**
+		 * How many runs in a row we may skip when nothing changed before sending everything again,
+		 * so that servers which missed a sync or just started catch up
+		 */
+		private static final int FULL_SYNC_RUNS = 10;
+
+		/**
+		 * The data we sent last time, player name to his data as JSON
+		 */
+		private Map<String, String> lastData = new HashMap<>();
+
+		/**
+		 * How many runs we skipped since the last time we sent the data
+		 */
+		private int skippedRuns = 0;
+
 		/**
 		 * @see java.lang.Runnable#run()
 		 */
 		@Override
 		public void run() {
 			final SerializedMap allData = new SerializedMap();
+			final Map<String, String> newData = new HashMap<>();
 
 			for (final Player online : Remain.getOnlinePlayers()) {
 				final SenderCache senderCache = SenderCache.from(online);
@@ -82,9 +101,19 @@ public final class Bungee {
 					}
 				}));
 
-				allData.put(online.getName(), data.toJson());
+				final String json = data.toJson();
+
+				allData.put(online.getName(), json);
+				newData.put(online.getName(), json);
 			}
 
+			// Do not flood BungeeCord with the same data every run
+			if (newData.equals(this.lastData) && ++this.skippedRuns < FULL_SYNC_RUNS)
+				return;
+
+			this.lastData = newData;
+			this.skippedRuns = 0;
+
 			if (BungeeCord.ENABLED)
 				BungeeUtil.tellBungee(BungeePacket.PLAYERS_SYNC, allData);
 
@@ -160,7 +189,7 @@ public final class Bungee {
 				String.class /*sender name*/,
 				UUID.class /*sender uid*/,
 				String.class /*message*/,
-				String.class /*simplecomponent json*/,
+				String.class /*simplecomponent json, see BungeeCodec#compress*/,
 				String.class /*console format*/,
 				Boolean.class /*mute bypass*/,
 				Boolean.class /*ignore bypass*/,
@@ -174,8 +203,8 @@ public final class Bungee {
 				String.class /*spy type*/,
 				String.class /*channel name*/,
 				String.class /*message*/,
-				String.class /*simplecomponent json*/,
-				String.class /*json string list of UUIDs of players we should ignore*/
+				String.class /*simplecomponent json, see BungeeCodec#compress*/,
+				String.class /*UUIDs of players we should ignore, see BungeeCodec#encodeUniqueIds*/
 		),
 
 		/**
@@ -193,8 +222,8 @@ public final class Bungee {
 		 */
 		ANNOUNCEMENT(
 				String.class /*type*/,
-				String.class /*message*/,
-				String.class /*json data*/
+				String.class /*message, see BungeeCodec#compress*/,
+				String.class /*json data, see BungeeCodec#compress*/
 		),
 
 		/**
@@ -0,0 +1,175 @@
+package org.mineacademy.chatcontrol.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.remain.Remain;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Packs large packet fields we send over BungeeCord into shorter strings.
+ *
+ * Packed values begin with a marker holding the format version, values without
+ * it are read as they are so that we understand packets in the old format.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BungeeCodec {
+
+	/**
+	 * The marker of deflated text, version 1
+	 */
+	private static final String DEFLATED = "\0Z1";
+
+	/**
+	 * The marker of a list of unique ids as raw bytes, version 1
+	 */
+	private static final String UNIQUE_IDS = "\0U1";
+
+	/**
+	 * Text shorter than this is not worth deflating
+	 */
+	private static final int DEFLATE_THRESHOLD = 512;
+
+	/**
+	 * Deflate the text if it is long and that makes it shorter
+	 *
+	 * @param text
+	 * @return
+	 */
+	public static String compress(String text) {
+		if (text.length() < DEFLATE_THRESHOLD)
+			return text;
+
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+		try {
+			deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+			deflater.finish();
+
+			final ByteArrayOutputStream output = new ByteArrayOutputStream(text.length() / 4);
+			final byte[] buffer = new byte[4096];
+
+			while (!deflater.finished())
+				output.write(buffer, 0, deflater.deflate(buffer));
+
+			final String compressed = DEFLATED + Base64.getEncoder().encodeToString(output.toByteArray());
+
+			return compressed.length() < text.length() ? compressed : text;
+
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Return the text made by {@link #compress(String)}
+	 *
+	 * @param text
+	 * @return
+	 */
+	public static String decompress(String text) {
+		if (!text.startsWith(DEFLATED))
+			return text;
+
+		final byte[] deflated = decodeBase64(text.substring(DEFLATED.length()));
+
+		// Not made by us after all, such as plain text that happens to begin with the marker
+		if (deflated == null)
+			return text;
+
+		final Inflater inflater = new Inflater();
+
+		try {
+			inflater.setInput(deflated);
+
+			final ByteArrayOutputStream output = new ByteArrayOutputStream(text.length() * 4);
+			final byte[] buffer = new byte[4096];
+
+			while (!inflater.finished()) {
+				final int length = inflater.inflate(buffer);
+
+				if (length == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					throw new DataFormatException("Truncated data");
+
+				output.write(buffer, 0, length);
+			}
+
+			return new String(output.toByteArray(), StandardCharsets.UTF_8);
+
+		} catch (final DataFormatException ex) {
+			Common.error(ex, "Received malformed compressed data over BungeeCord");
+
+			return "";
+
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Pack the unique ids as 16 raw bytes each
+	 *
+	 * @param uniqueIds
+	 * @return
+	 */
+	public static String encodeUniqueIds(Collection<UUID> uniqueIds) {
+		final ByteBuffer buffer = ByteBuffer.allocate(uniqueIds.size() * 16);
+
+		for (final UUID uniqueId : uniqueIds) {
+			buffer.putLong(uniqueId.getMostSignificantBits());
+			buffer.putLong(uniqueId.getLeastSignificantBits());
+		}
+
+		return UNIQUE_IDS + Base64.getEncoder().encodeToString(buffer.array());
+	}
+
+	/**
+	 * Return the unique ids made by {@link #encodeUniqueIds(Collection)} or sent as a JSON list
+	 *
+	 * @param text
+	 * @return
+	 */
+	public static Set<UUID> decodeUniqueIds(String text) {
+		final Set<UUID> uniqueIds = new HashSet<>();
+		final byte[] bytes = text.startsWith(UNIQUE_IDS) ? decodeBase64(text.substring(UNIQUE_IDS.length())) : null;
+
+		// Read the JSON list sent by older versions, also when the marker was not ours
+		if (bytes == null) {
+			for (final String uniqueId : Remain.fromJsonList(text))
+				uniqueIds.add(UUID.fromString(uniqueId));
+
+			return uniqueIds;
+		}
+
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+		while (buffer.remaining() >= 16)
+			uniqueIds.add(new UUID(buffer.getLong(), buffer.getLong()));
+
+		return uniqueIds;
+	}
+
+	/*
+	 * Return the decoded bytes or null if the text is not valid Base64
+	 */
+	private static byte[] decodeBase64(String text) {
+		try {
+			return Base64.getDecoder().decode(text);
+
+		} catch (final IllegalArgumentException ex) {
+			return null;
+		}
+	}
+}
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -54,6 +55,7 @@ import org.mineacademy.fo.remain.CompChatColor;
 import org.mineacademy.fo.remain.Remain;
 import org.mineacademy.fo.settings.YamlSectionConfig;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -139,6 +141,13 @@ public final class Channel extends YamlSectionConfig {
 	 */
 	private boolean cancelEvent;
 
+	/**
+	 * Online players in this channel with their modes, kept up to date by {@link PlayerCache}
+	 * so that we do not have to look through all online players for each message
+	 */
+	@Getter(AccessLevel.NONE)
+	private final Map<UUID, Mode> members = new ConcurrentHashMap<>();
+
 	/**
 	 * Create a new channel by name
 	 */
@@ -357,13 +366,13 @@ public final class Channel extends YamlSectionConfig {
 	public List<Player> getOnlinePlayers(Mode mode) {
 		final List<Player> players = new ArrayList<>();
 
-		for (final Player online : Remain.getOnlinePlayers()) {
-			final PlayerCache cache = PlayerCache.from(online);
-			final Mode otherMode = cache.getChannelMode(this);
+		for (final Entry<UUID, Mode> entry : this.members.entrySet())
+			if (entry.getValue() == mode) {
+				final Player online = Remain.getPlayerByUUID(entry.getKey());
 
-			if (otherMode == mode)
-				players.add(online);
-		}
+				if (online != null)
+					players.add(online);
+			}
 
 		return players;
 	}
@@ -376,17 +385,32 @@ public final class Channel extends YamlSectionConfig {
 	public Map<Player, Mode> getOnlinePlayers() {
 		final Map<Player, Mode> players = new HashMap<>();
 
-		for (final Player online : Remain.getOnlinePlayers()) {
-			final PlayerCache cache = PlayerCache.from(online);
-			final Mode mode = cache.getChannelMode(this);
+		for (final Entry<UUID, Mode> entry : this.members.entrySet()) {
+			final Player online = Remain.getPlayerByUUID(entry.getKey());
 
-			if (mode != null)
-				players.put(online, mode);
+			if (online != null)
+				players.put(online, entry.getValue());
 		}
 
 		return players;
 	}
 
+	/**
+	 * Update the mode of an online player in our member index, null to remove him
+	 *
+	 * Internal use only! Use {@link #joinPlayer(Player, Mode)} and {@link #leavePlayer(Player)} as API means
+	 *
+	 * @param uniqueId
+	 * @param mode
+	 */
+	public void updateMember(@NonNull UUID uniqueId, @Nullable Mode mode) {
+		if (mode == null)
+			this.members.remove(uniqueId);
+
+		else
+			this.members.put(uniqueId, mode);
+	}
+
 	/**
 	 * Broadcast message to all channel players
 	 *
@@ -549,7 +573,7 @@ public final class Channel extends YamlSectionConfig {
 						sender.getName(),
 						uniqueId,
 						message,
-						component.serialize(),
+						BungeeCodec.compress(component.serialize().toJson()),
 						Common.getOrEmpty(consoleFormat),
 						muteBypass,
 						ignoreBypass,
@@ -698,7 +722,12 @@ public final class Channel extends YamlSectionConfig {
 		final Set<Player> receivers = new HashSet<>();
 		final Set<Player> hiddenReceivers = new HashSet<>();
 
-		for (final Player receiver : this.getOnlinePlayers().keySet())
+		// Resolve range permissions once for the whole message
+		final boolean ranged = sender instanceof Player && this.range != null;
+		final boolean bypassRange = ranged && this.hasRangeBypass((Player) sender);
+		final boolean bypassRangeWorld = ranged && !bypassRange && this.hasRangeWorldBypass((Player) sender);
+
+		for (final Player receiver : this.compileCandidates(sender, ranged && !bypassRange && !bypassRangeWorld))
 			if (sender instanceof Player) {
 				final Player player = (Player) sender;
 				final PlayerCache cache = PlayerCache.from(receiver);
@@ -716,7 +745,7 @@ public final class Channel extends YamlSectionConfig {
 				if (cache.isIgnoringPart(Toggle.CHAT))
 					continue;
 
-				if (this.range != null && !isInRange(receiver, player))
+				if (ranged && !bypassRange && !isInRange(receiver, player, bypassRangeWorld))
 					continue;
 
 				if (this.party != null && !isInParty(receiver, player))
@@ -811,12 +840,32 @@ public final class Channel extends YamlSectionConfig {
 	}
 
 	/*
-	* Return true if the given receiver is within the range of the player
-	*/
-	private boolean isInRange(Player receiver, Player sender) {
-		Valid.checkNotNull(this.range);
+	 * Return the channel members who may receive the message, when the sender is limited
+	 * to a radius we only look at players around him instead of all members
+	 */
+	private Collection<Player> compileCandidates(@Nullable CommandSender sender, boolean radiusOnly) {
+		if (!radiusOnly || "*".equals(this.range))
+			return this.getOnlinePlayers().keySet();
+
+		final Player player = (Player) sender;
+
+		// Players in linked worlds hear the sender from any distance
+		if (this.rangeWorlds.contains(player.getWorld().getName()))
+			return this.getOnlinePlayers().keySet();
+
+		final Set<Player> candidates = new HashSet<>();
+
+		for (final Player nearby : PlayerGrid.getInstance().getNearbyPlayers(player.getLocation(), Integer.parseInt(this.range)))
+			if (this.members.containsKey(nearby.getUniqueId()))
+				candidates.add(nearby);
 
-		// Include all players when range is off or has perm
+		return candidates;
+	}
+
+	/*
+	 * Return true if the sender's messages reach all players regardless of range
+	 */
+	private boolean hasRangeBypass(Player sender) {
 		if (PlayerUtil.hasPerm(sender, Permissions.Bypass.RANGE)) {
 			Log.logOnce("channel-party", "Note: Player " + sender.getName() + " write to channel '" + this.name
 					+ "' that has range, but because he had '" + Permissions.Bypass.RANGE + "' permission everyone will see his message.");
@@ -824,22 +873,38 @@ public final class Channel extends YamlSectionConfig {
 			return true;
 		}
 
+		return false;
+	}
+
+	/*
+	 * Return true if the sender's messages reach all players in his world regardless of range
+	 */
+	private boolean hasRangeWorldBypass(Player sender) {
+		if (PlayerUtil.hasPerm(sender, Permissions.Bypass.RANGE_WORLD)) {
+			Log.logOnce("channel-party-world", "Note: Player " + sender.getName() + " wrote to channel '" + this.name
+					+ "' that has range, but because he had '" + Permissions.Bypass.RANGE_WORLD + "' permission "
+					+ "everyone on his world will see his message.");
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/*
+	* Return true if the given receiver is within the range of the player
+	*/
+	private boolean isInRange(Player receiver, Player sender, boolean hasBypassRangeWorld) {
+		Valid.checkNotNull(this.range);
+
 		final World senderWorld = sender.getWorld();
 		final World receiverWorld = receiver.getWorld();
 
-		final boolean hasBypassRangeWorld = PlayerUtil.hasPerm(sender, Permissions.Bypass.RANGE_WORLD);
 		final boolean sameWorlds = senderWorld.equals(receiverWorld);
 
 		if (sameWorlds) {
-			if ("*".equals(this.range) || hasBypassRangeWorld) {
-
-				if (hasBypassRangeWorld)
-					Log.logOnce("channel-party-world", "Note: Player " + sender.getName() + " wrote to channel '" + this.name
-							+ "' that has range, but because he had '" + Permissions.Bypass.RANGE_WORLD + "' permission "
-							+ "everyone on his world will see his message.");
-
+			if ("*".equals(this.range) || hasBypassRangeWorld)
 				return true;
-			}
 
 		} else {
 
@@ -1091,6 +1156,15 @@ public final class Channel extends YamlSectionConfig {
 	 */
 	public static void loadChannels() {
 		loadedChannels.loadItems();
+
+		// Channels are created anew, fill their member index again and
+		// the spy index too, which is empty after a server reload
+		for (final Player online : Remain.getOnlinePlayers()) {
+			final PlayerCache cache = PlayerCache.from(online);
+
+			cache.indexChannels(true);
+			Spy.updateSpying(cache, true);
+		}
 	}
 
 	/**
@@ -199,7 +199,7 @@ public class Checker {
 			final long periodTime = now - (period.getTimeSeconds() * 1000);
 			final int periodLimit = get(AntiSpam.Chat.LIMIT_MAX, AntiSpam.Commands.LIMIT_MAX);
 
-			if (senderCache.getOutputsAfter(type, periodTime, channel).size() >= periodLimit)
+			if (senderCache.countOutputsAfter(type, periodTime, channel) >= periodLimit)
 				get(WarningPoints.TRIGGER_CHAT_LIMIT, WarningPoints.TRIGGER_COMMAND_LIMIT).execute(sender,
 						Lang.of("Checker.Period")
 								.replace("{type_amount}", String.valueOf(periodLimit))
@@ -1,16 +1,16 @@
 package org.mineacademy.chatcontrol.model;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
@@ -42,6 +42,11 @@ public final class Database extends SimpleDatabase {
 	@Getter
 	private static final Database instance = new Database();
 
+	/**
+	 * How many players to read at once when going through the whole player table
+	 */
+	private static final int DATA_PAGE_SIZE = 1000;
+
 	/**
 	 * How long did it take to update the database initially?
 	 *
@@ -75,21 +80,32 @@ public final class Database extends SimpleDatabase {
 					" `Nick` text," +
 					" `Data` longtext," +
 					" `LastModified` bigint(20) DEFAULT NULL," +
-					" PRIMARY KEY (`UUID`)" +
+					" `Name_Lower` varchar(64) DEFAULT NULL," +
+					" `Nick_Plain` varchar(191) DEFAULT NULL," +
+					" PRIMARY KEY (`UUID`)," +
+					" INDEX `Name_Lower_Index` (`Name_Lower`)," +
+					" INDEX `Nick_Plain_Index` (`Nick_Plain`)" +
 					") DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_520_ci;");
 
+			this.migrateDataTable();
+
 			update("CREATE TABLE IF NOT EXISTS `{table_log}` (" +
-					" `Server` text," +
-					" `Date` datetime DEFAULT NULL," +
-					" `Type` text," +
-					" `Sender` text," +
+					" `Server` varchar(64)," +
+					" `Date` datetime NOT NULL," +
+					" `Type` varchar(32) NOT NULL," +
+					" `Sender` varchar(191)," +
 					" `Receiver` text," +
 					" `Content` longtext," +
-					" `ChannelName` text," +
-					" `RuleName` text," +
-					" `RuleGroupName` text" +
+					" `ChannelName` varchar(191)," +
+					" `RuleName` varchar(191)," +
+					" `RuleGroupName` varchar(191)," +
+					" INDEX `Date_Index` (`Date`)," +
+					" INDEX `Type_Date_Index` (`Type`, `Date`)," +
+					" INDEX `Sender_Date_Index` (`Sender`, `Date`)" +
 					") DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_520_ci;");
 
+			this.migrateLogTable();
+
 			update("CREATE TABLE IF NOT EXISTS `{table_mail}` (" +
 					" `UUID` varchar(255) NOT NULL," +
 					" `Data` longtext," +
@@ -109,6 +125,124 @@ public final class Database extends SimpleDatabase {
 		this.updatePing(now);
 	}
 
+	/*
+	 * Add the indexed lowercase name and colorless nick columns to the player table
+	 * created by older versions so that we can look up players without a full scan
+	 */
+	private void migrateDataTable() throws SQLException {
+		final boolean hasColumns;
+
+		try (ResultSet resultSet = query("SHOW COLUMNS FROM {table} LIKE 'Name_Lower'")) {
+			hasColumns = resultSet.next();
+		}
+
+		if (!hasColumns) {
+			Common.log("Adding name indexes to the " + replaceVariables("{table}") + " table, this may take a while for large tables...");
+
+			update("ALTER TABLE {table}" +
+					" ADD COLUMN `Name_Lower` varchar(64) DEFAULT NULL," +
+					" ADD COLUMN `Nick_Plain` varchar(191) DEFAULT NULL," +
+					" ADD INDEX `Name_Lower_Index` (`Name_Lower`)," +
+					" ADD INDEX `Nick_Plain_Index` (`Nick_Plain`)");
+		}
+
+		this.updateNameColumns();
+	}
+
+	/*
+	 * Fill in the lowercase name and colorless nick columns where they are missing or outdated,
+	 * done on every connect since servers still running older versions do not update them
+	 */
+	private void updateNameColumns() throws SQLException {
+		update("UPDATE {table} SET `Name_Lower` = LOWER(`Name`) WHERE `Name_Lower` IS NULL OR `Name_Lower` <> LOWER(`Name`)");
+		update("UPDATE {table} SET `Nick_Plain` = NULL WHERE `Nick` IS NULL AND `Nick_Plain` IS NOT NULL");
+
+		// Colors can only be stripped by us so compare nicks row by row, only few players have one
+		try (ResultSet resultSet = query("SELECT `UUID`, `Nick`, `Nick_Plain` FROM {table} WHERE `Nick` IS NOT NULL");
+				PreparedStatement statement = prepareStatement(replaceVariables("UPDATE {table} SET `Nick_Plain` = ? WHERE `UUID` = ?"))) {
+
+			int batched = 0;
+
+			while (resultSet.next()) {
+				final String plainNick = toPlainNick(resultSet.getString("Nick"));
+
+				if (plainNick.equals(resultSet.getString("Nick_Plain")))
+					continue;
+
+				statement.setString(1, plainNick);
+				statement.setString(2, resultSet.getString("UUID"));
+				statement.addBatch();
+
+				if (++batched % 1000 == 0)
+					statement.executeBatch();
+			}
+
+			statement.executeBatch();
+		}
+	}
+
+	/*
+	 * Convert the log table created by older versions to typed columns with indexes
+	 * so that /chc log does not have to read the whole table
+	 */
+	private void migrateLogTable() throws SQLException {
+
+		// Keep the column count, servers still running older versions insert without naming columns
+		try (ResultSet resultSet = query("SHOW INDEX FROM {table_log} WHERE Key_name = 'Date_Index'")) {
+			if (resultSet.next())
+				return;
+		}
+
+		Common.log("Adding indexes to the " + replaceVariables("{table_log}") + " table, this may take a while for large tables...");
+
+		try {
+			try (ResultSet resultSet = query("SELECT COUNT(*) FROM {table_log} WHERE `Date` IS NULL OR `Type` IS NULL")) {
+				final long invalidRows = resultSet.next() ? resultSet.getLong(1) : 0;
+
+				if (invalidRows > 0)
+					Common.log("Warning: " + invalidRows + " row(s) in the " + replaceVariables("{table_log}") + " table have no date or type. They are kept but not shown in /chc log.");
+			}
+
+			final List<String> changes = new ArrayList<>();
+
+			changes.add("ADD INDEX `Date_Index` (`Date`)");
+
+			// Only shorten columns when no value would be cut off, otherwise go without their index
+			if (this.fitsLogColumn("Type", 32)) {
+				changes.add("MODIFY `Type` varchar(32)");
+				changes.add("ADD INDEX `Type_Date_Index` (`Type`, `Date`)");
+			}
+
+			if (this.fitsLogColumn("Sender", 191)) {
+				changes.add("MODIFY `Sender` varchar(191)");
+				changes.add("ADD INDEX `Sender_Date_Index` (`Sender`, `Date`)");
+			}
+
+			update("ALTER TABLE {table_log} " + String.join(", ", changes));
+
+		} catch (final Throwable t) {
+			Common.error(t, "Failed to add indexes to the " + replaceVariables("{table_log}") + " table, /chc log will be slower. Logs will still be saved.");
+		}
+	}
+
+	/*
+	 * Return true if no value in the given log table column is longer than the given length,
+	 * logging a warning otherwise
+	 */
+	private boolean fitsLogColumn(String column, int length) throws SQLException {
+		try (ResultSet resultSet = query("SELECT MAX(CHAR_LENGTH(`" + column + "`)) FROM {table_log}")) {
+			final int longest = resultSet.next() ? resultSet.getInt(1) : 0;
+
+			if (longest <= length)
+				return true;
+
+			Common.log("Warning: Not indexing the " + column + " column in the " + replaceVariables("{table_log}") + " table because some values are "
+					+ longest + " characters long, over the limit of " + length + ".");
+
+			return false;
+		}
+	}
+
 	/*
 	 * Calculate how long it took to connect to the database, in ticks, adding 30% up as safety margin
 	 */
@@ -124,13 +258,34 @@ public final class Database extends SimpleDatabase {
 	/* ------------------------------------------------------------------------------- */
 
 	/**
-	 * Inserts the given SQL formatted values into the table_log
+	 * Inserts the given logs into the table_log in a single batch
 	 *
-	 * @param values
+	 * @param logs
+	 * @throws SQLException
 	 */
-	public void insertLogValues(String values) {
-		if (isLoaded())
-			update("INSERT INTO {table_log} VALUES(" + values + ")");
+	public void insertLogs(List<Log> logs) throws SQLException {
+		if (!isLoaded() || logs.isEmpty())
+			return;
+
+		final String serverName = Remain.getServerName();
+
+		try (PreparedStatement statement = prepareStatement(replaceVariables("INSERT INTO {table_log} (Server, Date, Type, Sender, Receiver, Content, ChannelName, RuleName, RuleGroupName) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?)"))) {
+			for (final Log log : logs) {
+				statement.setString(1, serverName);
+				statement.setTimestamp(2, new Timestamp(log.getDate()));
+				statement.setString(3, log.getType().getKey());
+				statement.setString(4, log.getSender());
+				statement.setString(5, Remain.toJson(log.getReceivers()));
+				statement.setString(6, log.getContent());
+				statement.setString(7, log.getChannelName());
+				statement.setString(8, log.getRuleName());
+				statement.setString(9, log.getRuleGroupName());
+
+				statement.addBatch();
+			}
+
+			statement.executeBatch();
+		}
 	}
 
 	/**
@@ -146,9 +301,16 @@ public final class Database extends SimpleDatabase {
 	}
 
 	/**
-	 * Remove old log entries as per settings
+	 * Return logs matching the given query, newest first, skipping the given
+	 * amount of logs and returning at most the given limit. Filters are evaluated
+	 * by the database so only the requested page is transferred.
+	 *
+	 * @param query
+	 * @param offset
+	 * @param limit
+	 * @return
 	 */
-	public List<Log> getLogEntries() {
+	public List<Log> getLogEntries(Log.Query query, int offset, int limit) {
 		Valid.checkAsync("Reading db logs must be done async!");
 
 		final List<Log> entries = new ArrayList<>();
@@ -156,30 +318,97 @@ public final class Database extends SimpleDatabase {
 		if (!isLoaded())
 			return entries;
 
-		final ResultSet resultSet = query("SELECT * FROM {table_log}");
+		final List<String> conditions = new ArrayList<>();
+		final List<Object> values = new ArrayList<>();
 
-		try {
-			while (resultSet.next()) {
-				try {
-					final long date = resultSet.getTimestamp("Date").getTime();
-					final Log.Type type = Log.Type.fromKey(resultSet.getString("Type"));
-					final String sender = resultSet.getString("Sender");
+		if (query.getType() != null) {
+			conditions.add("`Type` = ?");
+			values.add(query.getType().getKey());
+		}
+
+		if (query.getSender() != null) {
+			conditions.add("`Sender` = ?");
+			values.add(query.getSender());
+		}
+
+		if (query.getMinDate() != -1) {
+			conditions.add("`Date` >= ?");
+			values.add(new Timestamp(query.getMinDate()));
+		}
+
+		if (query.getMaxDate() != -1) {
+			conditions.add("`Date` <= ?");
+			values.add(new Timestamp(query.getMaxDate()));
+		}
+
+		if (query.getChannel() != null) {
+			conditions.add("`ChannelName` = ?");
+			values.add(query.getChannel());
+		}
+
+		if (query.getLabel() != null) {
+			conditions.add("(`Content` = ? OR `Content` LIKE ?)");
+			values.add(query.getLabel());
+			values.add(escapeLike(query.getLabel()) + " %");
+		}
+
+		// Older versions escaped quotes in the JSON so we only narrow down here, Log.Query#matches does the rest
+		if (query.getReceiver() != null) {
+			conditions.add("`Receiver` LIKE ?");
+			values.add("%" + escapeLike(query.getReceiver()) + "%");
+		}
+
+		addNameCondition("RuleName", query.getRule(), conditions, values);
+		addNameCondition("RuleGroupName", query.getGroup(), conditions, values);
+
+		final String sql = "SELECT * FROM {table_log}"
+				+ (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+				+ " ORDER BY `Date` DESC LIMIT ? OFFSET ?";
+
+		values.add(limit);
+		values.add(offset);
+
+		try (PreparedStatement statement = prepareStatement(replaceVariables(sql))) {
+			for (int i = 0; i < values.size(); i++)
+				statement.setObject(i + 1, values.get(i));
+
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					try {
+
+						// Kept from older versions, see migrateLogTable
+						if (resultSet.getTimestamp("Date") == null || resultSet.getString("Type") == null)
+							continue;
+
+						final long date = resultSet.getTimestamp("Date").getTime();
+						final Log.Type type = Log.Type.fromKey(resultSet.getString("Type"));
+						final String sender = resultSet.getString("Sender");
+
+						String receiversRaw = resultSet.getString("Receiver");
+						String content = resultSet.getString("Content");
 
-					final String receiversRaw = resultSet.getString("Receiver");
+						// Older versions escaped values themselves since they did not use prepared statements,
+						// see isLegacyLogRow on how we tell their rows apart
+						final boolean legacy = isLegacyLogRow(receiversRaw);
 
-					final List<String> receivers = Common.getOrDefault(receiversRaw != null ? Remain.fromJsonList(receiversRaw.replace("\\\"", "\"")) : null, new ArrayList<>());
-					final String content = resultSet.getString("Content").replace(",/ ", ", ").replace("\\\"", "\"");
-					final String channelName = resultSet.getString("ChannelName");
-					final String ruleName = resultSet.getString("RuleName");
-					final String ruleGroupName = resultSet.getString("RuleGroupName");
+						if (legacy) {
+							receiversRaw = receiversRaw != null ? receiversRaw.replace("\\\"", "\"") : null;
+							content = content.replace(",/ ", ", ").replace("\\\"", "\"");
+						}
+
+						final List<String> receivers = Common.getOrDefault(receiversRaw != null ? Remain.fromJsonList(receiversRaw) : null, new ArrayList<>());
+						final String channelName = resultSet.getString("ChannelName");
+						final String ruleName = resultSet.getString("RuleName");
+						final String ruleGroupName = resultSet.getString("RuleGroupName");
 
-					entries.add(new Log(date, type, sender, content, receivers, channelName, ruleName, ruleGroupName));
+						entries.add(new Log(date, type, sender, content, receivers, channelName, ruleName, ruleGroupName));
 
-				} catch (final Throwable t) {
-					Common.log("Error processing a row to clean up, aborting...");
+					} catch (final Throwable t) {
+						Common.log("Error processing a log row, aborting...");
 
-					t.printStackTrace();
-					break;
+						t.printStackTrace();
+						break;
+					}
 				}
 			}
 
@@ -190,6 +419,38 @@ public final class Database extends SimpleDatabase {
 		return entries;
 	}
 
+	/*
+	 * Return true if the log row was written by an older version, also by other servers still running it.
+	 * We always store receivers as a JSON array while older versions stored NULL when there were none
+	 * and escaped the quotes, so their arrays start with [\" which valid JSON never does.
+	 */
+	private static boolean isLegacyLogRow(@Nullable String receiversRaw) {
+		return receiversRaw == null || receiversRaw.startsWith("[\\\"");
+	}
+
+	/*
+	 * Add a condition for a rule or group name, see Log.Query#rule
+	 */
+	private static void addNameCondition(String column, @Nullable String name, List<String> conditions, List<Object> values) {
+		if (name == null)
+			conditions.add("`" + column + "` IS NULL");
+
+		else if ("*".equals(name))
+			conditions.add("`" + column + "` IS NOT NULL");
+
+		else {
+			conditions.add("`" + column + "` = ?");
+			values.add(name);
+		}
+	}
+
+	/*
+	 * Escape wildcards so that the value is matched literally in a LIKE clause
+	 */
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
 	/* ------------------------------------------------------------------------------- */
 	/* Mail */
 	/* ------------------------------------------------------------------------------- */
@@ -392,16 +653,18 @@ public final class Database extends SimpleDatabase {
 		if (!isLoaded())
 			return null;
 
-		try {
-			final ResultSet resultSet = query("SELECT * FROM {table}");
+		final String lowerName = nameOrNick.toLowerCase();
+		final String plainNick = toPlainNick(nameOrNick);
 
-			while (resultSet.next()) {
-				final Tuple<UserMap.Record, SerializedMap> tuple = parseDataRow(resultSet);
-				final String name = tuple.getKey().getName();
-				final String nick = tuple.getKey().getNick();
+		// Prefer a player with this name over one who merely has it as a nick
+		try (PreparedStatement statement = prepareStatement(replaceVariables("SELECT * FROM {table} WHERE `Name_Lower` = ? OR `Nick_Plain` = ? ORDER BY `Name_Lower` = ? DESC LIMIT 1"))) {
+			statement.setString(1, lowerName);
+			statement.setString(2, plainNick);
+			statement.setString(3, lowerName);
 
-				if (nameOrNick.equalsIgnoreCase(name) || (nick != null && Valid.colorlessEquals(nameOrNick, nick)))
-					return tuple;
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if (resultSet.next())
+					return parseDataRow(resultSet);
 			}
 
 		} catch (final Throwable t) {
@@ -412,38 +675,79 @@ public final class Database extends SimpleDatabase {
 	}
 
 	/**
-	 * Return the entire Player Name:Player UUID map from MySQL
+	 * Pass every player record in the database to the given visitor, only reading
+	 * the UUID, name and nick columns
 	 *
-	 * @return
+	 * @param visitor
 	 */
-	public Map<UserMap.Record, SerializedMap> getDatas() {
-		final Map<UserMap.Record, SerializedMap> allData = new HashMap<>();
+	public void visitRecords(Consumer<UserMap.Record> visitor) {
+		this.visitRows("`UUID`, `Name`, `Nick`", resultSet -> visitor.accept(parseRecord(resultSet)));
+	}
 
-		if (isLoaded()) {
-			final ResultSet resultSet = query("SELECT * FROM {table}");
+	/**
+	 * Pass every player record in the database with his data to the given visitor
+	 *
+	 * @param visitor
+	 */
+	public void visitDatas(BiConsumer<UserMap.Record, SerializedMap> visitor) {
+		this.visitRows("*", resultSet -> {
+			final Tuple<UserMap.Record, SerializedMap> tuple = parseDataRow(resultSet);
 
-			try {
-				while (resultSet.next()) {
-					final Tuple<UserMap.Record, SerializedMap> tuple = parseDataRow(resultSet);
+			visitor.accept(tuple.getKey(), tuple.getValue());
+		});
+	}
+
+	/*
+	 * Read the player table page by page ordered by UUID so that we never
+	 * hold more than one page in memory nor keep the connection busy streaming
+	 */
+	private void visitRows(String columns, RowVisitor visitor) {
+		if (!isLoaded())
+			return;
+
+		String lastUniqueId = "";
+
+		try (PreparedStatement statement = prepareStatement(replaceVariables("SELECT " + columns + " FROM {table} WHERE `UUID` > ? ORDER BY `UUID` LIMIT " + DATA_PAGE_SIZE))) {
+			statement.setFetchSize(DATA_PAGE_SIZE);
+
+			int rows;
+
+			do {
+				statement.setString(1, lastUniqueId);
+				rows = 0;
 
-					allData.put(tuple.getKey(), tuple.getValue());
+				try (ResultSet resultSet = statement.executeQuery()) {
+					while (resultSet.next()) {
+						lastUniqueId = resultSet.getString("UUID");
+						rows++;
+
+						visitor.visit(resultSet);
+					}
 				}
 
-			} catch (final Throwable t) {
-				Common.error(t, "Error getting user map from MySQL. Returning incomplete data...");
-			}
-		}
+			} while (rows == DATA_PAGE_SIZE);
 
-		return allData;
+		} catch (final Throwable t) {
+			Common.error(t, "Error getting user map from MySQL. Returning incomplete data...");
+		}
 	}
 
 	/*
-	 * Turn a row into user data
+	 * Turn a row into a player record
 	 */
-	private Tuple<UserMap.Record, SerializedMap> parseDataRow(ResultSet resultSet) throws SQLException {
+	private UserMap.Record parseRecord(ResultSet resultSet) throws SQLException {
 		final String name = resultSet.getString("Name");
 		final UUID uniqueId = UUID.fromString(resultSet.getString("UUID"));
 		final String nick = resultSet.getString("Nick");
+
+		return new UserMap.Record(name, uniqueId, nick);
+	}
+
+	/*
+	 * Turn a row into user data
+	 */
+	private Tuple<UserMap.Record, SerializedMap> parseDataRow(ResultSet resultSet) throws SQLException {
+		final UserMap.Record record = parseRecord(resultSet);
 		final String data = resultSet.getString("Data");
 		final long lastModified = resultSet.getLong("LastModified");
 
@@ -452,7 +756,7 @@ public final class Database extends SimpleDatabase {
 		if (lastModified > 0)
 			map.override("Last_Active", lastModified);
 
-		return new Tuple<>(new UserMap.Record(name, uniqueId, nick), map);
+		return new Tuple<>(record, map);
 	}
 
 	/**
@@ -506,6 +810,22 @@ public final class Database extends SimpleDatabase {
 		return SerializedMap.ofArray(
 				"UUID", uniqueId.toString(),
 				"Name", name,
-				"Nick", nick == null ? "NULL" : nick);
+				"Nick", nick == null ? "NULL" : nick,
+				"Name_Lower", name.toLowerCase(),
+				"Nick_Plain", nick == null ? "NULL" : toPlainNick(nick));
+	}
+
+	/*
+	 * Return the nick in the form we index it, without colors and lowercased
+	 */
+	private static String toPlainNick(String nick) {
+		return Common.stripColors(nick).toLowerCase();
+	}
+
+	/*
+	 * Visits rows of a result set, see visitRows
+	 */
+	private interface RowVisitor {
+		void visit(ResultSet resultSet) throws SQLException;
 	}
 }
@@ -56,6 +56,42 @@ public final class Format extends YamlConfig {
 	 */
 	private static final ConfigItems<Format> loadedFormats = ConfigItems.fromFolder("format", "formats", Format.class);
 
+	/**
+	 * How many legacy and JSON formats we keep parsed
+	 */
+	private static final int PARSED_FORMATS_LIMIT = 256;
+
+	/**
+	 * Legacy and JSON formats we already parsed, the eldest are removed when full
+	 */
+	private static final Map<String, Format> parsedFormats = new LinkedHashMap<String, Format>(16, 0.75F, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Format> eldest) {
+			return this.size() > PARSED_FORMATS_LIMIT;
+		}
+	};
+
+	/**
+	 * How many gradients we keep computed
+	 */
+	private static final int GRADIENT_COLORS_LIMIT = 512;
+
+	/**
+	 * Color codes for each letter of gradients we already computed, by their colors and length,
+	 * the eldest are removed when full
+	 */
+	private static final Map<Long, String[]> gradientColors = new LinkedHashMap<Long, String[]>(16, 0.75F, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, String[]> eldest) {
+			return this.size() > GRADIENT_COLORS_LIMIT;
+		}
+	};
+
+	/**
+	 * The variable where the chat message is placed
+	 */
+	private static final String MESSAGE_VARIABLE = "{message}";
+
 	/**
 	 * The format name
 	 */
@@ -153,6 +189,16 @@ public final class Format extends YamlConfig {
 
 			this.options.put(name, option);
 		}
+
+		this.compileOptions();
+	}
+
+	/*
+	 * Split and compile the text of all options so that building them is faster
+	 */
+	private void compileOptions() {
+		for (final FormatOption option : this.options.values())
+			option.compile();
 	}
 
 	/**
@@ -237,19 +283,13 @@ public final class Format extends YamlConfig {
 				buildOption(inheritOption, component, sender, message, variables);
 		}
 
-		final String MESSAGE_VARIABLE = "{message}";
-		final String formatContent = String.join("\n", option.getMessages());
-
 		// Special case:
 		// Replacing {message} to add interactive variables into it
-		if (formatContent.contains(MESSAGE_VARIABLE)) {
-			final int messageIndex = formatContent.indexOf(MESSAGE_VARIABLE);
+		if (option.afterMessage != null) {
 
 			// add what is before message
-			final String before = formatContent.substring(0, messageIndex);
-
 			component
-					.append(generateGradient(replaceVariables(sender, variables, before), option))
+					.append(this.fill(option.beforeMessage, sender, variables, option))
 					.viewPermission(option.getReceiverPermission());
 
 			// We have to call this for each component part of the chat message
@@ -325,9 +365,8 @@ public final class Format extends YamlConfig {
 			addInterativeElements(component, sender, variables, option);
 
 			// add the rest
-			final String afterMessageVariable = formatContent.substring(messageIndex + MESSAGE_VARIABLE.length(), formatContent.length());
 			component
-					.append(generateGradient(replaceVariables(sender, variables, afterMessageVariable), option))
+					.append(this.fill(option.afterMessage, sender, variables, option))
 					.viewPermission(option.getReceiverPermission());
 
 			addInterativeElements(component, sender, variables, option);
@@ -336,7 +375,7 @@ public final class Format extends YamlConfig {
 		// Simply add the part of the format then
 		else {
 			component
-					.append(generateGradient(replaceVariables(sender, variables, formatContent), option))
+					.append(this.fill(option.beforeMessage, sender, variables, option))
 					.viewPermission(option.getReceiverPermission());
 
 			addInterativeElements(component, sender, variables, option);
@@ -350,8 +389,14 @@ public final class Format extends YamlConfig {
 		if (option.getReceiverCondition() != null && !option.getReceiverCondition().isEmpty())
 			component.viewCondition(Replacer.replaceVariables(option.getReceiverCondition(), variables));
 
-		if (!Valid.isNullOrEmpty(option.getHoverText()))
-			component.onHover(replaceVariables(sender, variables, option.getHoverText()));
+		if (!Valid.isNullOrEmpty(option.getHoverText())) {
+			final List<String> hover = new ArrayList<>(option.compiledHover.size());
+
+			for (final Segment line : option.compiledHover)
+				hover.add(this.fill(line, sender, variables, null));
+
+			component.onHover(hover);
+		}
 
 		if (option.getHoverItem() != null && !option.getHoverItem().isEmpty()) {
 			final Object result = JavaScriptExecutor.run(option.getHoverItem(), sender);
@@ -367,29 +412,32 @@ public final class Format extends YamlConfig {
 			component.onClickOpenUrl(option.getOpenUrl());
 
 		if (option.getSuggestCommand() != null && !option.getSuggestCommand().isEmpty())
-			component.onClickSuggestCmd(replaceVariables(sender, variables, option.getSuggestCommand()));
+			component.onClickSuggestCmd(this.fill(option.compiledSuggestCommand, sender, variables, null));
 
-		if (option.getRunCommand() != null && !option.getRunCommand().isEmpty()) {
-			final String runCommand = option.getRunCommand();
-
-			component.onClickRunCmd(replaceVariables(sender, variables, runCommand));
-		}
+		if (option.getRunCommand() != null && !option.getRunCommand().isEmpty())
+			component.onClickRunCmd(this.fill(option.compiledRunCommand, sender, variables, null));
 
 		if (option.getInsertion() != null && !option.getInsertion().isEmpty())
-			component.onClickInsert(replaceVariables(sender, variables, option.getInsertion()));
+			component.onClickInsert(this.fill(option.compiledInsertion, sender, variables, null));
 	}
 
 	/*
-	 * Replace variables in the message
+	 * Replace variables in the compiled text and apply gradient from the option if given,
+	 * text without variables is only replaced the first time and then reused
 	 */
-	private List<String> replaceVariables(CommandSender sender, SerializedMap variables, List<String> list) {
-		// Create a new list instead of changing the given one
-		final List<String> replaced = new ArrayList<>();
+	private String fill(Segment segment, CommandSender sender, SerializedMap variables, @Nullable FormatOption gradientOption) {
+		if (!segment.dynamic && segment.compiled != null)
+			return segment.compiled;
 
-		for (final String item : list)
-			replaced.add(replaceVariables(sender, variables, item));
+		String text = replaceVariables(sender, variables, segment.text);
 
-		return replaced;
+		if (gradientOption != null)
+			text = generateGradient(text, gradientOption);
+
+		if (!segment.dynamic)
+			segment.compiled = text;
+
+		return text;
 	}
 
 	/*
@@ -413,11 +461,9 @@ public final class Format extends YamlConfig {
 
 			final Tuple<CompChatColor, CompChatColor> tuple = option.getGradient();
 
-			final Color color1 = tuple.getKey().getColor();
-			final Color color2 = tuple.getValue().getColor();
-
 			final char[] letters = string.toCharArray();
-			String gradient = "";
+			final String[] colors = getGradientColors(tuple.getKey().getColor(), tuple.getValue().getColor(), letters.length);
+			final StringBuilder gradient = new StringBuilder(letters.length * 16);
 
 			ChatColor lastDecoration = null;
 
@@ -450,23 +496,58 @@ public final class Format extends YamlConfig {
 					continue;
 				}
 
-				final float ratio = (float) i / (float) letters.length;
+				gradient.append(colors[i]);
 
-				final int red = (int) (color2.getRed() * ratio + color1.getRed() * (1 - ratio));
-				final int green = (int) (color2.getGreen() * ratio + color1.getGreen() * (1 - ratio));
-				final int blue = (int) (color2.getBlue() * ratio + color1.getBlue() * (1 - ratio));
+				if (lastDecoration != null)
+					gradient.append(ChatColor.COLOR_CHAR).append(lastDecoration.getChar());
 
-				final Color stepColor = new Color(red, green, blue);
-
-				gradient += CompChatColor.of(stepColor).toString() + (lastDecoration == null ? "" : lastDecoration.toString()) + letters[i];
+				gradient.append(letter);
 			}
 
-			return gradient;
+			return gradient.toString();
 		}
 
 		return string;
 	}
 
+	/*
+	 * Return the color code for each letter of a gradient of the given length,
+	 * computed once and then reused from our cache
+	 */
+	private static String[] getGradientColors(Color color1, Color color2, int length) {
+
+		// Colors are 24 bits each, leaving 16 bits for the length
+		final boolean cacheable = length <= 0xFFFF;
+		final long key = (long) (color1.getRGB() & 0xFFFFFF) << 40 | (long) (color2.getRGB() & 0xFFFFFF) << 16 | length;
+
+		if (cacheable)
+			synchronized (gradientColors) {
+				final String[] cached = gradientColors.get(key);
+
+				if (cached != null)
+					return cached;
+			}
+
+		final String[] colors = new String[length];
+
+		for (int i = 0; i < length; i++) {
+			final float ratio = (float) i / (float) length;
+
+			final int red = (int) (color2.getRed() * ratio + color1.getRed() * (1 - ratio));
+			final int green = (int) (color2.getGreen() * ratio + color1.getGreen() * (1 - ratio));
+			final int blue = (int) (color2.getBlue() * ratio + color1.getBlue() * (1 - ratio));
+
+			colors[i] = CompChatColor.of(new Color(red, green, blue)).toString();
+		}
+
+		if (cacheable)
+			synchronized (gradientColors) {
+				gradientColors.put(key, colors);
+			}
+
+		return colors;
+	}
+
 	// ------–------–------–------–------–------–------–------–------–------–------–------–
 	// Classes
 	// ------–------–------–------–------–------–------–------–------–------–------–------–
@@ -557,6 +638,69 @@ public final class Format extends YamlConfig {
 		@Nullable
 		private Tuple<CompChatColor, CompChatColor> gradient;
 
+		/**
+		 * The message before {message}, or the whole message if it has no {message}
+		 */
+		@Getter(AccessLevel.NONE)
+		private Segment beforeMessage;
+
+		/**
+		 * The message after {message}, null if it has no {message}
+		 */
+		@Getter(AccessLevel.NONE)
+		private Segment afterMessage;
+
+		/**
+		 * The compiled hover lines
+		 */
+		@Getter(AccessLevel.NONE)
+		private List<Segment> compiledHover;
+
+		/**
+		 * The compiled command to suggest
+		 */
+		@Getter(AccessLevel.NONE)
+		private Segment compiledSuggestCommand;
+
+		/**
+		 * The compiled command to run
+		 */
+		@Getter(AccessLevel.NONE)
+		private Segment compiledRunCommand;
+
+		/**
+		 * The compiled insertion text
+		 */
+		@Getter(AccessLevel.NONE)
+		private Segment compiledInsertion;
+
+		/*
+		 * Split the message around {message} and compile all texts with variables
+		 */
+		private void compile() {
+			final String content = this.messages == null ? "" : String.join("\n", this.messages);
+			final int messageIndex = content.indexOf(MESSAGE_VARIABLE);
+
+			if (messageIndex != -1) {
+				this.beforeMessage = new Segment(content.substring(0, messageIndex));
+				this.afterMessage = new Segment(content.substring(messageIndex + MESSAGE_VARIABLE.length()));
+
+			} else {
+				this.beforeMessage = new Segment(content);
+				this.afterMessage = null;
+			}
+
+			this.compiledHover = new ArrayList<>();
+
+			if (this.hoverText != null)
+				for (final String line : this.hoverText)
+					this.compiledHover.add(new Segment(line));
+
+			this.compiledSuggestCommand = this.suggestCommand != null ? new Segment(this.suggestCommand) : null;
+			this.compiledRunCommand = this.runCommand != null ? new Segment(this.runCommand) : null;
+			this.compiledInsertion = this.insertion != null ? new Segment(this.insertion) : null;
+		}
+
 		/**
 		 * Turn this class into a saveable format to the file
 		 *
@@ -695,6 +839,35 @@ public final class Format extends YamlConfig {
 		}
 	}
 
+	/**
+	 * Represents a piece of format text compiled when the format loads
+	 */
+	private static final class Segment {
+
+		/**
+		 * The raw text
+		 */
+		private final String text;
+
+		/**
+		 * Does the text have variables we need to replace for each message?
+		 */
+		private final boolean dynamic;
+
+		/**
+		 * The finished text, reused for all messages when the text has no variables
+		 */
+		private volatile String compiled;
+
+		/*
+		 * Compile the given text
+		 */
+		private Segment(String text) {
+			this.text = text;
+			this.dynamic = text.indexOf('{') != -1 || text.indexOf('%') != -1;
+		}
+	}
+
 	/**
 	 * @see java.lang.Object#equals(java.lang.Object)
 	 */
@@ -723,12 +896,15 @@ public final class Format extends YamlConfig {
 	 * @return
 	 */
 	public static Format parse(@NonNull String formatOrLegacy) {
-		if (formatOrLegacy.startsWith("[JSON]"))
-			return fromJson(formatOrLegacy.replace("[JSON]", ""));
-
 		final Format format = findFormat(formatOrLegacy);
 
-		return Common.getOrDefault(format, legacy(formatOrLegacy));
+		if (format != null)
+			return format;
+
+		synchronized (parsedFormats) {
+			return parsedFormats.computeIfAbsent(formatOrLegacy,
+					key -> key.startsWith("[JSON]") ? fromJson(key.replace("[JSON]", "")) : legacy(key));
+		}
 	}
 
 	/*
@@ -740,6 +916,7 @@ public final class Format extends YamlConfig {
 
 		option.messages = Arrays.asList(message);
 		format.options = Common.newHashMap("legacy", option);
+		format.compileOptions();
 
 		return format;
 	}
@@ -767,6 +944,7 @@ public final class Format extends YamlConfig {
 		}
 
 		format.options = options;
+		format.compileOptions();
 
 		return format;
 	}
@@ -776,6 +954,10 @@ public final class Format extends YamlConfig {
 	 */
 	public static void loadFormats() {
 		loadedFormats.loadItems();
+
+		synchronized (parsedFormats) {
+			parsedFormats.clear();
+		}
 	}
 
 	/**
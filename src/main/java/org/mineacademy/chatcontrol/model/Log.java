@@ -1,19 +1,14 @@
 package org.mineacademy.chatcontrol.model;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.StandardOpenOption;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import javax.annotation.Nullable;
 
@@ -28,11 +23,9 @@ import org.mineacademy.chatcontrol.operator.RuleOperator;
 import org.mineacademy.chatcontrol.settings.Lang;
 import org.mineacademy.chatcontrol.settings.Settings;
 import org.mineacademy.fo.Common;
-import org.mineacademy.fo.FileUtil;
 import org.mineacademy.fo.ItemUtil;
 import org.mineacademy.fo.PlayerUtil;
 import org.mineacademy.fo.SerializeUtil;
-import org.mineacademy.fo.TimeUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.exception.FoException;
@@ -70,25 +63,30 @@ public final class Log {
 	 */
 	@Getter
 	private final static SerializedMap databaseStructure = SerializedMap.ofArray(
-			"Server", "text",
+			"Server", "varchar(64)",
 			"Date", "datetime",
-			"Type", "text",
-			"Sender", "text",
+			"Type", "varchar(32)",
+			"Sender", "varchar(191)",
 			"Receiver", "text",
-			"Content", "text",
-			"ChannelName", "text",
-			"RuleName", "text",
-			"RuleGroupName", "text");
+			"Content", "longtext",
+			"ChannelName", "varchar(191)",
+			"RuleName", "varchar(191)",
+			"RuleGroupName", "varchar(191)");
 
 	/**
-	 * The date format in dd.MM.yyy HH:mm:ss
+	 * The date format in dd.MM.yyy HH:mm:ss, per thread since logs are written and read concurrently
 	 */
-	private static final DateFormat fileDateFormat = new SimpleDateFormat("dd.MM.yyyy HH:mm:ss");
+	private static final ThreadLocal<DateFormat> fileDateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("dd.MM.yyyy HH:mm:ss"));
 
 	/**
-	 * The path to the file used for all logging
+	 * How many logs to fetch from the database at once when reading
 	 */
-	private final static String filePath = "log.csv";
+	private static final int DATABASE_PAGE_SIZE = 500;
+
+	/**
+	 * The path to the file used for all logging before logs were split per day
+	 */
+	final static String filePath = "log.csv";
 
 	/**
 	 * What console messages we already showed to the console? This is not stored in any
@@ -97,6 +95,11 @@ public final class Log {
 	 */
 	private final static Set<String> shownConsoleMessages = new HashSet<>();
 
+	/**
+	 * Released once old log segments were migrated and purged, see {@link #purgeOldEntries()}
+	 */
+	private static volatile CountDownLatch segmentsReady = new CountDownLatch(0);
+
 	/* ------------------------------------------------------------------------------- */
 	/* A log properties */
 	/* ------------------------------------------------------------------------------- */
@@ -226,26 +229,8 @@ public final class Log {
 			return false;
 		}
 
-		// Write to database
-		if (Settings.MySQL.ENABLED)
-			Common.runAsync(() -> Database.getInstance().insertLogValues(makeLineDb()));
-
-		else {
-			final File file = FileUtil.getOrMakeFile(filePath);
-
-			// Write the line - use our own method to handle \n
-			try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
-
-				// Write header, assuming when something is in file, that header was written already
-				if (FileUtil.readLines(file).isEmpty())
-					writer.append(Common.join(fileStructure.keySet(), ", ") + System.lineSeparator());
-
-				writer.append(makeLineCsv().replace("\n", "\\n") + System.lineSeparator());
-
-			} catch (final IOException ex) {
-				ex.printStackTrace();
-			}
-		}
+		// Write to database or file in the next batch
+		LogWriter.getInstance().add(this);
 
 		return true;
 	}
@@ -253,9 +238,9 @@ public final class Log {
 	/*
 	 * Convert this log into a writeable line for csv
 	 */
-	private String makeLineCsv() {
+	String makeLineCsv() {
 		final List<Object> values = Arrays.asList(
-				fileDateFormat.format(new Date(date)),
+				fileDateFormat.get().format(new Date(date)),
 				type,
 				sender,
 				receivers.isEmpty() ? null : Remain.toJson(receivers),
@@ -276,70 +261,64 @@ public final class Log {
 		return line;
 	}
 
-	/*
-	 * Convert this log into a writeable line for MySQL
-	 */
-	private String makeLineDb() {
-		final List<Object> values = Arrays.asList(
-				Remain.getServerName(), // different from csv
-				TimeUtil.toSQLTimestamp(date), // different from csv
-				type,
-				sender,
-				receivers.isEmpty() ? null : Remain.toJson(receivers),
-				content,
-				channelName,
-				ruleName,
-				ruleGroupName);
-
-		String line = "";
-
-		for (int i = 0; i < values.size(); i++) {
-			final Object value = SerializeUtil.serialize(values.get(i));
-
-			line += value != null && !value.equals("NULL") ? "'" + value.toString()
-					.replace("'", "")
-					.replace("\"", "\\\"")
-					.replace("\\", "\\\\")
-					.replace(", ", ",/ ") + "'" : "NULL"; // different from csv
-
-			line += i + 1 < values.size() ? ", " : "";
-		}
-
-		return line;
-	}
-
 	/* ------------------------------------------------------------------------------- */
 	/* Static */
 	/* ------------------------------------------------------------------------------- */
 
 	/**
-	 * Return all file logs
+	 * Return the newest logs matching the given query, newest first
 	 *
+	 * @param query
 	 * @return
 	 */
-	public static List<Log> readLogs() {
-		List<Log> loaded = new ArrayList<>();
+	public static List<Log> readLogs(Query query) {
+		final List<Log> loaded = new ArrayList<>();
 
-		// Write to database
-		if (Settings.MySQL.ENABLED)
-			loaded = Database.getInstance().getLogEntries();
+		// Read from database page by page, it filters for us so usually one page is enough
+		if (Settings.MySQL.ENABLED) {
+			final int pageSize = Math.min(query.getLimit(), DATABASE_PAGE_SIZE);
 
-		else {
-			final File file = FileUtil.getFile(filePath);
+			for (int offset = 0; loaded.size() < query.getLimit(); offset += pageSize) {
+				final List<Log> page = Database.getInstance().getLogEntries(query, offset, pageSize);
 
-			if (file.exists())
-				for (final String line : FileUtil.readLines(file))
-					if (!isHeader(line))
-						loaded.add(fromLine(line));
+				for (final Log log : page)
+					if (query.matches(log) && loaded.size() < query.getLimit())
+						loaded.add(log);
+
+				if (page.size() < pageSize)
+					break;
+			}
 		}
 
-		Collections.reverse(loaded);
+		else {
+
+			// Wait until old logs are migrated and purged so that we do not read them half way
+			try {
+				segmentsReady.await();
+
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
+
+				return loaded;
+			}
+
+			final List<LogSegment> segments = LogSegment.getSegments();
+
+			// Go from the newest segment and only open those that can hold matching logs
+			for (int i = segments.size() - 1; i >= 0 && loaded.size() < query.getLimit(); i--) {
+				final LogSegment segment = segments.get(i);
+
+				if (segment.mayMatch(query))
+					loaded.addAll(segment.read(query, query.getLimit() - loaded.size()));
+			}
+		}
 
 		return loaded;
 	}
 
 	/**
-	 * Purge old entries over {@link Settings.Log#CLEAN_AFTER} limit
+	 * Purge old entries over {@link Settings.Log#CLEAN_AFTER} limit,
+	 * log files are handled asynchronously and read only after that finishes
 	 */
 	public static void purgeOldEntries() {
 
@@ -347,25 +326,66 @@ public final class Log {
 		if (Settings.MySQL.ENABLED)
 			Database.getInstance().purgeLogEntries();
 
+		// Moving and indexing a large old log.csv can take long, do it off the main thread
 		else {
-			final File file = FileUtil.getFile(filePath);
+			final CountDownLatch latch = new CountDownLatch(1);
 
-			if (file.exists()) {
-				final List<String> lines = FileUtil.readLines(file);
+			segmentsReady = latch;
 
-				lines.removeIf(line -> {
-					if (!isHeader(line)) {
-						final Log log = fromLine(line);
-						final long threshold = System.currentTimeMillis() - (Settings.Log.CLEAN_AFTER.getTimeSeconds() * 1000L);
+			Common.runAsync(() -> {
+				try {
+					purgeSegments();
 
-						return log.getDate() < threshold;
-					}
+				} catch (final Throwable t) {
+					Common.error(t, "Error cleaning old logs");
 
-					return false;
-				});
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+	}
 
-				FileUtil.write(file, lines, StandardOpenOption.TRUNCATE_EXISTING);
-			}
+	/*
+	 * Move the old log file into segments and remove logs older than the threshold
+	 */
+	private static void purgeSegments() {
+		final long threshold = System.currentTimeMillis() - (Settings.Log.CLEAN_AFTER.getTimeSeconds() * 1000L);
+
+		LogSegment.migrateLegacyFile();
+
+		final String today = LogSegment.getDay(System.currentTimeMillis());
+
+		for (final LogSegment segment : LogSegment.getSegments()) {
+
+			// Never touch the segment being written to
+			if (segment.isEmpty() || segment.getDay().equals(today) || LogWriter.getInstance().isWriting(segment))
+				continue;
+
+			// Drop whole expired segments, only rewrite those partially expired
+			if (segment.getLastDate() < threshold)
+				segment.delete();
+
+			else if (segment.getFirstDate() < threshold)
+				segment.purgeBefore(threshold);
+		}
+	}
+
+	/*
+	 * Attempt to parse log from the given line, returning null for
+	 * the header, empty or malformed lines
+	 */
+	static Log parseLine(String line) {
+		if (line.trim().isEmpty() || isHeader(line))
+			return null;
+
+		try {
+			return fromLine(line);
+
+		} catch (final Throwable t) {
+			Log.logOnce("log-malformed", "Skipping malformed log line: " + line + " (" + t + ")");
+
+			return null;
 		}
 	}
 
@@ -387,7 +407,7 @@ public final class Log {
 		}
 
 		try {
-			final long date = fileDateFormat.parse(split[0]).getTime();
+			final long date = fileDateFormat.get().parse(split[0]).getTime();
 			final Type type = Type.fromKey(split[1]);
 			final String sender = split[2];
 			final List<String> receivers = Common.getOrDefault(split[3].equals("NULL") ? null : Remain.fromJsonList(split[3]), new ArrayList<>());
@@ -403,10 +423,17 @@ public final class Log {
 		}
 	}
 
+	/*
+	 * Return the header line for csv
+	 */
+	static String getCsvHeader() {
+		return Common.join(fileStructure.keySet(), ", ");
+	}
+
 	/*
 	 * Return if the line is the log header
 	 */
-	private static boolean isHeader(String line) {
+	static boolean isHeader(String line) {
 		return String.join(",", fileStructure.keySet()).equals(line.replace(" ", ""));
 	}
 
@@ -593,6 +620,170 @@ public final class Log {
 	/* Classes */
 	/* ------------------------------------------------------------------------------- */
 
+	/**
+	 * Represents a search for logs, empty properties match anything
+	 */
+	@Getter
+	public static final class Query {
+
+		/**
+		 * The log type, null for all
+		 */
+		@Nullable
+		private Type type;
+
+		/**
+		 * The sender name
+		 */
+		@Nullable
+		private String sender;
+
+		/**
+		 * One of the receiver names
+		 */
+		@Nullable
+		private String receiver;
+
+		/**
+		 * The channel name
+		 */
+		@Nullable
+		private String channel;
+
+		/**
+		 * The command label including the slash
+		 */
+		@Nullable
+		private String label;
+
+		/**
+		 * The rule name or * for all, null to only match logs not caused by rules
+		 */
+		@Nullable
+		private String rule;
+
+		/**
+		 * The rule group name or * for all, null to only match logs not caused by groups
+		 */
+		@Nullable
+		private String group;
+
+		/**
+		 * The oldest and newest date of logs, -1 if not set
+		 */
+		private long minDate = -1;
+		private long maxDate = -1;
+
+		/**
+		 * The maximum amount of logs to return
+		 */
+		private int limit = Integer.MAX_VALUE;
+
+		public Query type(@Nullable Type type) {
+			this.type = type;
+
+			return this;
+		}
+
+		public Query sender(String sender) {
+			this.sender = sender;
+
+			return this;
+		}
+
+		public Query receiver(String receiver) {
+			this.receiver = receiver;
+
+			return this;
+		}
+
+		public Query channel(String channel) {
+			this.channel = channel;
+
+			return this;
+		}
+
+		public Query label(String label) {
+			this.label = label;
+
+			return this;
+		}
+
+		public Query rule(String rule) {
+			this.rule = rule;
+
+			return this;
+		}
+
+		public Query group(String group) {
+			this.group = group;
+
+			return this;
+		}
+
+		public Query minDate(long minDate) {
+			this.minDate = minDate;
+
+			return this;
+		}
+
+		public Query maxDate(long maxDate) {
+			this.maxDate = maxDate;
+
+			return this;
+		}
+
+		public Query limit(int limit) {
+			this.limit = limit;
+
+			return this;
+		}
+
+		/**
+		 * Return true if the given log matches this query
+		 *
+		 * @param log
+		 * @return
+		 */
+		public boolean matches(Log log) {
+			if (this.type != null && log.getType() != this.type)
+				return false;
+
+			if (this.sender != null && !this.sender.equalsIgnoreCase(log.getSender()))
+				return false;
+
+			if (this.maxDate != -1 && log.getDate() > this.maxDate)
+				return false;
+
+			if (this.minDate != -1 && log.getDate() < this.minDate)
+				return false;
+
+			if (this.channel != null && !this.channel.equalsIgnoreCase(log.getChannelName()))
+				return false;
+
+			if (this.label != null && !this.label.equalsIgnoreCase(log.getContent().split(" ")[0]))
+				return false;
+
+			if (this.receiver != null && !Valid.isInList(this.receiver, log.getReceivers()))
+				return false;
+
+			if (!matchesName(this.rule, log.getRuleName()) || !matchesName(this.group, log.getRuleGroupName()))
+				return false;
+
+			return true;
+		}
+
+		/*
+		 * Return true if both are null, the expected name is * and the actual is set, or they equal
+		 */
+		private static boolean matchesName(@Nullable String expected, @Nullable String actual) {
+			if (expected == null || actual == null)
+				return expected == null && actual == null;
+
+			return "*".equals(expected) || expected.equalsIgnoreCase(actual);
+		}
+	}
+
 	/**
 	 * Represents a log type
 	 */
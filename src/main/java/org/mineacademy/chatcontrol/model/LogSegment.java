@@ -0,0 +1,537 @@
+package org.mineacademy.chatcontrol.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.mineacademy.chatcontrol.settings.Settings;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.FileUtil;
+import org.mineacademy.fo.collection.SerializedMap;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Represents one file of the file log storage, holding logs of one day
+ * up to a maximum size, together with a small index of what is inside
+ * so that we can skip it entirely when searching.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class LogSegment {
+
+	/**
+	 * The folder holding all segments
+	 */
+	private static final String FOLDER = "logs";
+
+	/**
+	 * The day of segments created from the old single log.csv file
+	 */
+	private static final String LEGACY_DAY = "legacy";
+
+	/**
+	 * Loaded segments by their file name, shared between the writer and readers
+	 */
+	private static final Map<String, LogSegment> segments = new ConcurrentHashMap<>();
+
+	/**
+	 * The csv file with the logs
+	 */
+	@Getter
+	private final File file;
+
+	/**
+	 * The index file next to it
+	 */
+	private final File indexFile;
+
+	/**
+	 * The day in yyyy-MM-dd format the logs are from
+	 */
+	@Getter
+	private final String day;
+
+	/**
+	 * The part of the day when the day exceeded the maximum size
+	 */
+	@Getter
+	private final int part;
+
+	/**
+	 * Date of the oldest and newest log inside
+	 */
+	@Getter
+	private long firstDate = Long.MAX_VALUE;
+
+	@Getter
+	private long lastDate = Long.MIN_VALUE;
+
+	/**
+	 * Values found in logs, lower cased
+	 */
+	private final Set<String> types = new HashSet<>();
+	private final Set<String> senders = new HashSet<>();
+	private final Set<String> receivers = new HashSet<>();
+	private final Set<String> channels = new HashSet<>();
+	private final Set<String> rules = new HashSet<>();
+	private final Set<String> groups = new HashSet<>();
+
+	/**
+	 * Return true if the segment has no logs
+	 *
+	 * @return
+	 */
+	public synchronized boolean isEmpty() {
+		return this.firstDate == Long.MAX_VALUE;
+	}
+
+	/**
+	 * Add the log to the index, call before writing it to the file
+	 *
+	 * @param log
+	 */
+	synchronized void record(Log log) {
+		this.firstDate = Math.min(this.firstDate, log.getDate());
+		this.lastDate = Math.max(this.lastDate, log.getDate());
+
+		this.types.add(log.getType().getKey());
+		this.senders.add(log.getSender().toLowerCase());
+
+		for (final String receiver : log.getReceivers())
+			this.receivers.add(receiver.toLowerCase());
+
+		if (!isBlank(log.getChannelName()))
+			this.channels.add(log.getChannelName().toLowerCase());
+
+		if (!isBlank(log.getRuleName()))
+			this.rules.add(log.getRuleName().toLowerCase());
+
+		if (!isBlank(log.getRuleGroupName()))
+			this.groups.add(log.getRuleGroupName().toLowerCase());
+	}
+
+	/**
+	 * Return false if the segment surely holds no log for the given query
+	 *
+	 * @param query
+	 * @return
+	 */
+	public synchronized boolean mayMatch(Log.Query query) {
+		if (this.isEmpty())
+			return false;
+
+		if (query.getMaxDate() != -1 && this.firstDate > query.getMaxDate())
+			return false;
+
+		if (query.getMinDate() != -1 && this.lastDate < query.getMinDate())
+			return false;
+
+		if (query.getType() != null && !this.types.contains(query.getType().getKey()))
+			return false;
+
+		if (query.getSender() != null && !this.senders.contains(query.getSender().toLowerCase()))
+			return false;
+
+		if (query.getReceiver() != null && !this.receivers.contains(query.getReceiver().toLowerCase()))
+			return false;
+
+		if (query.getChannel() != null && !this.channels.contains(query.getChannel().toLowerCase()))
+			return false;
+
+		if (query.getRule() != null && !mayContain(this.rules, query.getRule()))
+			return false;
+
+		if (query.getGroup() != null && !mayContain(this.groups, query.getGroup()))
+			return false;
+
+		return true;
+	}
+
+	/*
+	 * Return true if the value is in the set or the value is * and the set is not empty
+	 */
+	private static boolean mayContain(Set<String> values, String value) {
+		return "*".equals(value) ? !values.isEmpty() : values.contains(value.toLowerCase());
+	}
+
+	/**
+	 * Read up to the given amount of newest logs matching the query, newest first,
+	 * streaming the file so that we only hold the matches in memory
+	 *
+	 * @param query
+	 * @param limit
+	 * @return
+	 */
+	public List<Log> read(Log.Query query, int limit) {
+		final Deque<Log> newest = new ArrayDeque<>();
+
+		if (limit > 0 && this.file.exists())
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), StandardCharsets.UTF_8))) {
+				String line;
+
+				while ((line = reader.readLine()) != null) {
+					final Log log = Log.parseLine(line);
+
+					if (log == null || !query.matches(log))
+						continue;
+
+					if (newest.size() == limit)
+						newest.pollFirst();
+
+					newest.addLast(log);
+				}
+
+			} catch (final IOException ex) {
+				Common.error(ex, "Error reading logs from " + this.file);
+			}
+
+		final List<Log> logs = new ArrayList<>(newest.size());
+
+		for (final Iterator<Log> it = newest.descendingIterator(); it.hasNext();)
+			logs.add(it.next());
+
+		return logs;
+	}
+
+	/**
+	 * Save the index next to the file, remembering the file length
+	 * so that we can tell when it is outdated
+	 */
+	synchronized void saveIndex() {
+		final SerializedMap map = SerializedMap.ofArray(
+				"Length", this.file.length(),
+				"First_Date", this.firstDate,
+				"Last_Date", this.lastDate,
+				"Types", this.types,
+				"Senders", this.senders,
+				"Receivers", this.receivers,
+				"Channels", this.channels,
+				"Rules", this.rules,
+				"Groups", this.groups);
+
+		try {
+			Files.write(this.indexFile.toPath(), map.toJson().getBytes(StandardCharsets.UTF_8));
+
+		} catch (final IOException ex) {
+			Common.error(ex, "Error saving log index " + this.indexFile);
+		}
+	}
+
+	/*
+	 * Load the index from its file, or rebuild it by reading
+	 * the segment when missing or outdated
+	 */
+	private synchronized void loadIndex() {
+		if (this.indexFile.exists())
+			try {
+				final SerializedMap map = SerializedMap.fromJson(new String(Files.readAllBytes(this.indexFile.toPath()), StandardCharsets.UTF_8));
+
+				if (map.getLong("Length") == this.file.length()) {
+					this.firstDate = map.getLong("First_Date");
+					this.lastDate = map.getLong("Last_Date");
+
+					this.types.addAll(map.getStringList("Types"));
+					this.senders.addAll(map.getStringList("Senders"));
+					this.receivers.addAll(map.getStringList("Receivers"));
+					this.channels.addAll(map.getStringList("Channels"));
+					this.rules.addAll(map.getStringList("Rules"));
+					this.groups.addAll(map.getStringList("Groups"));
+
+					return;
+				}
+
+			} catch (final Throwable t) {
+				Common.log("Rebuilding malformed log index " + this.indexFile + ", got: " + t);
+			}
+
+		this.rebuildIndex();
+	}
+
+	/*
+	 * Read the whole segment and save a fresh index
+	 */
+	private void rebuildIndex() {
+		this.firstDate = Long.MAX_VALUE;
+		this.lastDate = Long.MIN_VALUE;
+
+		for (final Set<String> values : Arrays.asList(this.types, this.senders, this.receivers, this.channels, this.rules, this.groups))
+			values.clear();
+
+		if (this.file.exists())
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), StandardCharsets.UTF_8))) {
+				String line;
+
+				while ((line = reader.readLine()) != null) {
+					final Log log = Log.parseLine(line);
+
+					if (log != null)
+						this.record(log);
+				}
+
+			} catch (final IOException ex) {
+				Common.error(ex, "Error indexing logs in " + this.file);
+			}
+
+		this.saveIndex();
+	}
+
+	/**
+	 * Remove logs older than the given date by copying the newer ones
+	 * to a temporary file and moving it over the segment, so that
+	 * a crash in the middle leaves the original file intact.
+	 *
+	 * Logs are written in time order so we stop parsing at the first log
+	 * that is new enough and copy the rest as is.
+	 *
+	 * @param threshold
+	 */
+	synchronized void purgeBefore(long threshold) {
+		final File tempFile = new File(this.file.getParentFile(), this.file.getName() + ".tmp");
+		long firstKept = Long.MAX_VALUE;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), StandardCharsets.UTF_8));
+				BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				if (firstKept == Long.MAX_VALUE && !Log.isHeader(line)) {
+					final Log log = Log.parseLine(line);
+
+					if (log == null || log.getDate() < threshold)
+						continue;
+
+					firstKept = log.getDate();
+				}
+
+				writer.write(line);
+				writer.write(System.lineSeparator());
+			}
+
+		} catch (final IOException ex) {
+			Common.error(ex, "Error purging old logs from " + this.file + ", leaving it untouched");
+
+			tempFile.delete();
+			return;
+		}
+
+		if (firstKept == Long.MAX_VALUE) {
+			tempFile.delete();
+			this.delete();
+
+			return;
+		}
+
+		try {
+			try {
+				Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+			} catch (final AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+		} catch (final IOException ex) {
+			Common.error(ex, "Error replacing " + this.file + " with purged logs, leaving it untouched");
+
+			tempFile.delete();
+			return;
+		}
+
+		// Other values may now list removed logs, which only makes us open the file needlessly
+		this.firstDate = firstKept;
+		this.saveIndex();
+	}
+
+	/**
+	 * Remove the segment and its index from the disk
+	 */
+	synchronized void delete() {
+		segments.remove(this.file.getName());
+
+		this.file.delete();
+		this.indexFile.delete();
+	}
+
+	/* ------------------------------------------------------------------------------- */
+	/* Static */
+	/* ------------------------------------------------------------------------------- */
+
+	/**
+	 * Return all segments on the disk, oldest first
+	 *
+	 * @return
+	 */
+	public static List<LogSegment> getSegments() {
+		final File folder = FileUtil.getFile(FOLDER);
+		final File[] files = folder.listFiles((dir, name) -> name.startsWith("log_") && name.endsWith(".csv"));
+		final List<LogSegment> loaded = new ArrayList<>();
+
+		if (files != null)
+			for (final File file : files)
+				loaded.add(segments.computeIfAbsent(file.getName(), name -> load(file)));
+
+		// Forget segments removed from the disk
+		segments.values().removeIf(segment -> !segment.getFile().exists());
+
+		loaded.sort((first, second) -> {
+			final boolean firstLegacy = LEGACY_DAY.equals(first.day);
+			final boolean secondLegacy = LEGACY_DAY.equals(second.day);
+
+			if (firstLegacy != secondLegacy)
+				return firstLegacy ? -1 : 1;
+
+			final int dayCompare = first.day.compareTo(second.day);
+
+			return dayCompare != 0 ? dayCompare : Integer.compare(first.part, second.part);
+		});
+
+		return loaded;
+	}
+
+	/**
+	 * Return the segment new logs from the given date should be written to,
+	 * starting a new part when the latest one is full
+	 *
+	 * @param date
+	 * @return
+	 */
+	static LogSegment getWritable(long date) {
+		final String day = getDay(date);
+		LogSegment latest = null;
+
+		for (final LogSegment segment : getSegments())
+			if (segment.day.equals(day) && (latest == null || segment.part > latest.part))
+				latest = segment;
+
+		if (latest == null)
+			return create(day, 0);
+
+		if (isFull(latest))
+			return create(day, latest.part + 1);
+
+		return latest;
+	}
+
+	/**
+	 * Return the day of the given date in yyyy-MM-dd format
+	 *
+	 * @param date
+	 * @return
+	 */
+	static String getDay(long date) {
+		return Instant.ofEpochMilli(date).atZone(ZoneId.systemDefault()).toLocalDate().toString();
+	}
+
+	/**
+	 * Return true if the segment reached the maximum size from settings
+	 *
+	 * @param segment
+	 * @return
+	 */
+	static boolean isFull(LogSegment segment) {
+		return segment.file.length() >= Settings.Log.MAX_FILE_SIZE_MB * 1024L * 1024L;
+	}
+
+	/**
+	 * Move the old single log.csv file into the segments folder,
+	 * it is indexed as one segment holding all older logs
+	 */
+	public static void migrateLegacyFile() {
+		final File legacyFile = FileUtil.getFile(Log.filePath);
+
+		if (!legacyFile.exists())
+			return;
+
+		final File target = new File(FileUtil.getFile(FOLDER), getFileName(LEGACY_DAY, 0));
+
+		if (target.exists()) {
+			Common.log("Not moving " + legacyFile + " to " + target + " because it already exists, please merge them manually.");
+
+			return;
+		}
+
+		try {
+			target.getParentFile().mkdirs();
+			Files.move(legacyFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+			Common.log("Moved " + legacyFile.getName() + " to " + FOLDER + "/" + target.getName() + ", new logs are now stored per day in the " + FOLDER + " folder.");
+
+		} catch (final IOException ex) {
+			Common.error(ex, "Failed to move " + legacyFile + " to " + target);
+		}
+	}
+
+	/*
+	 * Create an empty segment
+	 */
+	private static LogSegment create(String day, int part) {
+		final String name = getFileName(day, part);
+		final File file = FileUtil.getOrMakeFile(FOLDER + "/" + name);
+
+		return segments.computeIfAbsent(name, key -> load(file));
+	}
+
+	/*
+	 * Load the segment from the given file
+	 */
+	private static LogSegment load(File file) {
+		final String name = file.getName().substring("log_".length(), file.getName().length() - ".csv".length());
+		final int separator = name.indexOf('_');
+
+		String day = name;
+		int part = 0;
+
+		if (separator != -1)
+			try {
+				part = Integer.parseInt(name.substring(separator + 1));
+				day = name.substring(0, separator);
+
+			} catch (final NumberFormatException ex) {
+				// Not our naming, keep the whole name as day
+			}
+
+		final LogSegment segment = new LogSegment(file, new File(file.getParentFile(), file.getName().replace(".csv", ".index")), day, part);
+		segment.loadIndex();
+
+		return segment;
+	}
+
+	/*
+	 * Return the file name for the given day and part
+	 */
+	private static String getFileName(String day, int part) {
+		return "log_" + day + (part == 0 ? "" : "_" + part) + ".csv";
+	}
+
+	/*
+	 * Return true if the value is null or empty
+	 */
+	private static boolean isBlank(@Nullable String value) {
+		return value == null || value.isEmpty();
+	}
+}
@@ -0,0 +1,356 @@
+package org.mineacademy.chatcontrol.model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mineacademy.chatcontrol.settings.Settings;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.debug.Debugger;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Writes logs on a dedicated background thread in batches,
+ * either to the database or to the current log segment which
+ * we keep open between batches.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class LogWriter {
+
+	/**
+	 * The singleton instance
+	 */
+	@Getter
+	private static final LogWriter instance = new LogWriter();
+
+	/**
+	 * How many logs can wait to be written before new ones are dropped
+	 */
+	private static final int QUEUE_CAPACITY = 10_000;
+
+	/**
+	 * Logs waiting to be written, filled from any thread
+	 */
+	private final BlockingQueue<Log> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+	/**
+	 * The writing thread, null if not yet started
+	 */
+	private volatile Thread thread;
+
+	/**
+	 * The segment we are writing to, null if closed
+	 */
+	private LogSegment segment;
+
+	/**
+	 * The open segment writer, null if closed
+	 */
+	private BufferedWriter writer;
+
+	/**
+	 * How many logs were written so far
+	 */
+	private final AtomicLong writtenCount = new AtomicLong();
+
+	/**
+	 * How many logs we failed to write so far
+	 */
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/**
+	 * How many logs we dropped because the queue was full
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * The dropped count we last warned about, only touched by the writing thread
+	 */
+	private long droppedCountReported;
+
+	/**
+	 * The most logs that were waiting in the queue at once
+	 */
+	private final AtomicInteger peakQueueSize = new AtomicInteger();
+
+	/**
+	 * Queue the log to be written in the next batch
+	 *
+	 * @param log
+	 */
+	public void add(Log log) {
+
+		// Check before locking since writing a batch holds the lock
+		if (this.thread == null)
+			this.start();
+
+		// Never wait for space since logs are also made on the main thread, drop the log
+		// when the disk or database cannot keep up and warn from the writing thread
+		if (!this.queue.offer(log)) {
+			this.droppedCount.incrementAndGet();
+
+			return;
+		}
+
+		this.peakQueueSize.accumulateAndGet(this.queue.size(), Math::max);
+	}
+
+	/*
+	 * Start the writing thread if not running, such as for the first log or after a reload
+	 */
+	private synchronized void start() {
+		if (this.thread == null) {
+			this.thread = new Thread(this::run, "ChatControl Log Writer");
+
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+	}
+
+	/**
+	 * Stop the writing thread, write all pending logs and close the file, called when the plugin disables.
+	 * The thread starts again with the next log.
+	 */
+	public void stop() {
+		final Thread thread;
+
+		synchronized (this) {
+			thread = this.thread;
+			this.thread = null;
+		}
+
+		if (thread != null) {
+			thread.interrupt();
+
+			try {
+				thread.join(TimeUnit.SECONDS.toMillis(10));
+
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		// Write what the thread did not manage to
+		this.flush();
+		this.closeFile();
+	}
+
+	/**
+	 * Write all pending logs now on the calling thread, waiting for the writing
+	 * thread to finish its batch if it is still running
+	 */
+	public void flush() {
+		final List<Log> batch = new ArrayList<>();
+
+		while (this.queue.drainTo(batch, Settings.Log.BATCH_SIZE) > 0) {
+			this.write(batch);
+
+			batch.clear();
+		}
+	}
+
+	/*
+	 * Take logs from the queue and write them as a group every batch delay
+	 * or as soon as we have a full batch
+	 */
+	private void run() {
+		final List<Log> batch = new ArrayList<>();
+
+		while (!Thread.currentThread().isInterrupted())
+			try {
+				final Log first = this.queue.poll(Settings.Log.BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+
+				if (first == null)
+					continue;
+
+				batch.add(first);
+
+				final long deadline = System.currentTimeMillis() + Settings.Log.BATCH_DELAY_MS;
+
+				// Wait for more logs until the batch is full or the delay is over
+				while (batch.size() < Settings.Log.BATCH_SIZE) {
+					this.queue.drainTo(batch, Settings.Log.BATCH_SIZE - batch.size());
+
+					final long remaining = deadline - System.currentTimeMillis();
+
+					if (batch.size() >= Settings.Log.BATCH_SIZE || remaining <= 0)
+						break;
+
+					final Log next = this.queue.poll(remaining, TimeUnit.MILLISECONDS);
+
+					if (next == null)
+						break;
+
+					batch.add(next);
+				}
+
+				this.write(batch);
+				batch.clear();
+
+				this.reportBackpressure();
+
+			} catch (final InterruptedException ex) {
+				break;
+
+			} catch (final Throwable t) {
+				Common.error(t, "Error writing " + batch.size() + " log(s), skipping them...");
+
+				this.failedCount.addAndGet(batch.size());
+				batch.clear();
+			}
+
+		// Do not lose what we took from the queue already
+		if (!batch.isEmpty())
+			this.write(batch);
+	}
+
+	/*
+	 * Warn when we dropped logs because we could not write them fast enough
+	 */
+	private void reportBackpressure() {
+		final long dropped = this.droppedCount.get();
+
+		if (dropped > this.droppedCountReported) {
+			Common.log("Warning: Logs are coming faster than we can write them, dropped " + (dropped - this.droppedCountReported) + " log(s)."
+					+ " Consider increasing Log.Batch_Size or lowering Log.Batch_Delay_Ms in settings.yml.");
+
+			this.droppedCountReported = dropped;
+		}
+
+		Debugger.debug("log", "Written " + this.writtenCount.get() + " log(s), failed " + this.failedCount.get() + ", waiting " + this.queue.size()
+				+ ", peak " + this.peakQueueSize.get() + ", dropped " + dropped);
+	}
+
+	/*
+	 * Write the given logs to the database or to their file segments,
+	 * one batch at a time even when flushing while the thread still runs
+	 */
+	private synchronized void write(List<Log> logs) {
+		if (Settings.MySQL.ENABLED)
+			this.writeToDatabase(logs);
+
+		else
+			this.writeToFile(logs);
+	}
+
+	/*
+	 * Insert the given logs in one database batch
+	 */
+	private void writeToDatabase(List<Log> logs) {
+		try {
+			Database.getInstance().insertLogs(logs);
+
+			this.writtenCount.addAndGet(logs.size());
+
+		} catch (final SQLException ex) {
+			Common.error(ex, "Error writing " + logs.size() + " log(s) to database");
+
+			this.failedCount.addAndGet(logs.size());
+		}
+	}
+
+	/*
+	 * Append the given logs to their segments and flush them to disk
+	 */
+	private synchronized void writeToFile(List<Log> logs) {
+		final Set<LogSegment> written = new HashSet<>();
+
+		try {
+			for (final Log log : logs) {
+				this.openSegment(log.getDate());
+
+				// Index first so that readers never skip a log that is already in the file
+				this.segment.record(log);
+				written.add(this.segment);
+
+				this.writer.write(log.makeLineCsv().replace("\n", "\\n"));
+				this.writer.write(System.lineSeparator());
+			}
+
+			if (this.writer != null)
+				this.writer.flush();
+
+			this.writtenCount.addAndGet(logs.size());
+
+		} catch (final IOException ex) {
+			Common.error(ex, "Error writing " + logs.size() + " log(s) to " + (this.segment != null ? this.segment.getFile() : "logs"));
+
+			this.failedCount.addAndGet(logs.size());
+			this.closeFile();
+		}
+
+		for (final LogSegment segment : written)
+			segment.saveIndex();
+	}
+
+	/*
+	 * Make sure the segment for logs from the given date is open,
+	 * switching to a new one when the day changes or it is full
+	 */
+	private void openSegment(long date) throws IOException {
+		if (this.segment != null && this.segment.getDay().equals(LogSegment.getDay(date)) && !LogSegment.isFull(this.segment))
+			return;
+
+		if (this.writer != null) {
+			this.writer.flush();
+			this.segment.saveIndex();
+		}
+
+		this.closeFile();
+
+		final LogSegment segment = LogSegment.getWritable(date);
+		final File file = segment.getFile();
+		final boolean empty = file.length() == 0;
+
+		this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+		this.segment = segment;
+
+		if (empty) {
+			this.writer.write(Log.getCsvHeader());
+			this.writer.write(System.lineSeparator());
+		}
+	}
+
+	/**
+	 * Return true if we are currently writing to the given segment
+	 *
+	 * @param segment
+	 * @return
+	 */
+	public synchronized boolean isWriting(LogSegment segment) {
+		return segment.equals(this.segment);
+	}
+
+	/**
+	 * Close the log segment, it is opened again on the next write
+	 */
+	synchronized void closeFile() {
+		if (this.writer != null)
+			try {
+				this.writer.close();
+
+			} catch (final IOException ex) {
+				Common.error(ex, "Error closing log file " + this.segment.getFile());
+
+			} finally {
+				this.writer = null;
+				this.segment = null;
+			}
+	}
+}
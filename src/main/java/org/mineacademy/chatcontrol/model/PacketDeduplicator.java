@@ -0,0 +1,145 @@
+package org.mineacademy.chatcontrol.model;
+
+import java.util.UUID;
+
+/**
+ * Remembers packets we recently received so that we can ignore duplicates,
+ * which problematic RedisBungee implementations sometimes send.
+ *
+ * Packets are stored as 64-bit hashes of their content in a fixed-size table
+ * where entries expire after a short window, so memory never grows.
+ */
+public final class PacketDeduplicator {
+
+	/**
+	 * How many slots we look through for each packet
+	 */
+	private static final int PROBE_LENGTH = 8;
+
+	/**
+	 * The hashes of recently received packets, 0 for an empty slot
+	 */
+	private final long[] hashes;
+
+	/**
+	 * When the packet in the same slot was first received within its window
+	 */
+	private final long[] timestamps;
+
+	/**
+	 * How long in milliseconds a packet is considered a duplicate
+	 */
+	private final long windowMs;
+
+	/**
+	 * Create a new deduplicator holding about the given amount of packets
+	 *
+	 * @param capacity will be rounded up to the nearest power of two
+	 * @param windowMs
+	 */
+	public PacketDeduplicator(int capacity, long windowMs) {
+		final int size = Integer.highestOneBit(Math.max(PROBE_LENGTH, capacity - 1)) << 1;
+
+		this.hashes = new long[size];
+		this.timestamps = new long[size];
+		this.windowMs = windowMs;
+	}
+
+	/**
+	 * Return true if a packet with the same parts was not received within the window,
+	 * starting a new window for it. Duplicates do not extend the window so that a packet
+	 * repeated forever is still let through once per window.
+	 *
+	 * @param parts
+	 * @return
+	 */
+	public synchronized boolean accept(Object... parts) {
+		final long hash = hash(parts);
+		final long now = System.currentTimeMillis();
+		final int mask = this.hashes.length - 1;
+
+		int target = -1;
+		long oldest = Long.MAX_VALUE;
+
+		for (int probe = 0; probe < PROBE_LENGTH; probe++) {
+			final int slot = (int) (hash + probe) & mask;
+
+			if (this.hashes[slot] == hash) {
+				if (now - this.timestamps[slot] <= this.windowMs)
+					return false;
+
+				this.timestamps[slot] = now;
+
+				return true;
+			}
+
+			// Reuse an empty or expired slot, otherwise evict the oldest one we saw
+			final long timestamp = this.hashes[slot] == 0 || now - this.timestamps[slot] > this.windowMs ? Long.MIN_VALUE : this.timestamps[slot];
+
+			if (timestamp < oldest) {
+				oldest = timestamp;
+				target = slot;
+			}
+		}
+
+		this.hashes[target] = hash;
+		this.timestamps[target] = now;
+
+		return true;
+	}
+
+	/*
+	 * Hash the given parts with 64-bit FNV-1a without joining them into one string
+	 */
+	private static long hash(Object... parts) {
+		long hash = 0xcbf29ce484222325L;
+
+		// Prefix each part with its type and length so that "ab" + "c" differs from "a" + "bc"
+		// without a separator that could also appear in the content
+		hash = mix(hash, parts.length);
+
+		for (final Object part : parts) {
+			if (part instanceof UUID) {
+				hash = mix(hash, 1);
+				hash = mix(hash, ((UUID) part).getMostSignificantBits());
+				hash = mix(hash, ((UUID) part).getLeastSignificantBits());
+
+			} else if (part instanceof Iterable) {
+				int count = 0;
+				long elements = 0xcbf29ce484222325L;
+
+				for (final Object element : (Iterable<?>) part) {
+					elements = mix(elements, hash(element));
+
+					count++;
+				}
+
+				hash = mix(hash, 2);
+				hash = mix(hash, count);
+				hash = mix(hash, elements);
+
+			} else {
+				final String string = String.valueOf(part);
+
+				hash = mix(hash, 3);
+				hash = mix(hash, string.length());
+
+				for (int i = 0; i < string.length(); i++)
+					hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+			}
+		}
+
+		// Keep 0 free to mark empty slots
+		return hash == 0 ? 1 : hash;
+	}
+
+	/*
+	 * Mix a whole long value into the hash
+	 */
+	private static long mix(long hash, long value) {
+		for (int shift = 0; shift < 64; shift += 8)
+			hash = (hash ^ (value >>> shift & 0xff)) * 0x100000001b3L;
+
+		return hash;
+	}
+}
@@ -0,0 +1,157 @@
+package org.mineacademy.chatcontrol.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.FileUtil;
+import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.collection.SerializedMap;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stores player data when MySQL is not used, one small JSON file per player
+ * in players/<first two letters of uuid>/<uuid>.json so that saving one player
+ * only ever rewrites his own record.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PlayerDataStore {
+
+	/**
+	 * The singleton instance
+	 */
+	@Getter
+	private static final PlayerDataStore instance = new PlayerDataStore();
+
+	/**
+	 * The folder with all player files
+	 */
+	private final File folder = FileUtil.getFile("players");
+
+	/**
+	 * Return the stored data for the given player, empty if he has none
+	 *
+	 * @param uniqueId
+	 * @return
+	 */
+	public SerializedMap load(UUID uniqueId) {
+		final File file = this.getFile(uniqueId);
+
+		if (!file.exists())
+			return new SerializedMap();
+
+		try {
+			final String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+			return json.trim().isEmpty() ? new SerializedMap() : SerializedMap.fromJson(json);
+
+		} catch (final Throwable t) {
+			Common.error(t, "Error loading player data from " + file + ", starting with empty data");
+
+			return new SerializedMap();
+		}
+	}
+
+	/**
+	 * Replace the stored data for the given player, removing his file if the data are empty
+	 *
+	 * @param uniqueId
+	 * @param data
+	 */
+	public void save(UUID uniqueId, SerializedMap data) {
+		final File file = this.getFile(uniqueId);
+
+		if (data.isEmpty() || Valid.isNullOrEmptyValues(data)) {
+			this.delete(uniqueId);
+
+			return;
+		}
+
+		try {
+			final Path target = file.toPath();
+
+			Files.createDirectories(target.getParent());
+
+			// Write aside first so a crash never leaves a half written record
+			final Path temp = Files.createTempFile(target.getParent(), uniqueId.toString(), ".tmp");
+
+			try {
+				Files.write(temp, data.toJson().getBytes(StandardCharsets.UTF_8));
+
+				try {
+					Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+				} catch (final AtomicMoveNotSupportedException ex) {
+					Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+				}
+
+				// Let us find inactive players without opening their files, players
+				// never seen active are treated as inactive like they were in data.db
+				file.setLastModified(data.getLong("Last_Active", 0L));
+
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+
+		} catch (final IOException ex) {
+			Common.error(ex, "Error saving player data to " + file);
+		}
+	}
+
+	/**
+	 * Remove the stored data for the given player
+	 *
+	 * @param uniqueId
+	 */
+	public void delete(UUID uniqueId) {
+		final File file = this.getFile(uniqueId);
+
+		if (file.exists() && !file.delete())
+			Common.log("Unable to delete player data file " + file);
+	}
+
+	/**
+	 * Remove data of players who have not been active since the given date,
+	 * judged by the modification time of their files which {@link #save(UUID, SerializedMap)}
+	 * sets to their last activity, or to 0 when unknown
+	 *
+	 * @param threshold
+	 * @return how many players were removed
+	 */
+	public int deleteInactive(long threshold) {
+		final File[] shards = this.folder.listFiles(File::isDirectory);
+		int deleted = 0;
+
+		if (shards != null)
+			for (final File shard : shards) {
+				final File[] files = shard.listFiles((dir, name) -> name.endsWith(".json"));
+
+				if (files != null)
+					for (final File file : files)
+
+						// The file is stamped with the last activity on each save
+						if (file.lastModified() < threshold && file.delete())
+							deleted++;
+			}
+
+		return deleted;
+	}
+
+	/*
+	 * Return the file for the given player, spread over subfolders so none grows too large
+	 */
+	private File getFile(UUID uniqueId) {
+		final String id = uniqueId.toString();
+
+		return new File(new File(this.folder, id.substring(0, 2)), id + ".json");
+	}
+}
@@ -0,0 +1,191 @@
+package org.mineacademy.chatcontrol.model;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.entity.Player;
+import org.mineacademy.chatcontrol.PlayerCache;
+import org.mineacademy.chatcontrol.SenderCache;
+import org.mineacademy.chatcontrol.settings.Settings;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.debug.Debugger;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saves player caches some time after they change so that many changes
+ * in a short time only cause one write to disk or database.
+ *
+ * All saves run one after another on a single writer thread so that an
+ * older save can never overwrite a newer one of the same player.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PlayerDataWriter {
+
+	/**
+	 * The singleton instance
+	 */
+	@Getter
+	private static final PlayerDataWriter instance = new PlayerDataWriter();
+
+	/**
+	 * Caches that changed and wait to be saved
+	 */
+	private final Map<UUID, PlayerCache> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * The thread writing to the database or the players folder, in the order saves were requested
+	 */
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+		final Thread thread = new Thread(runnable, "ChatControl Data Writer");
+
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * How many times a cache asked to be saved
+	 */
+	private final AtomicLong requestedCount = new AtomicLong();
+
+	/**
+	 * How many saves were merged with a save already waiting
+	 */
+	private final AtomicLong avoidedCount = new AtomicLong();
+
+	/**
+	 * How many saves were actually made
+	 */
+	private final AtomicLong savedCount = new AtomicLong();
+
+	/**
+	 * Mark the cache as changed and save it once {@link Settings#SAVE_DATA_DELAY} passes
+	 *
+	 * @param cache
+	 */
+	public void markDirty(PlayerCache cache) {
+		this.requestedCount.incrementAndGet();
+
+		if (this.pending.putIfAbsent(cache.getUniqueId(), cache) != null) {
+			this.avoidedCount.incrementAndGet();
+
+			return;
+		}
+
+		Common.runLater(Math.max(1, Settings.SAVE_DATA_DELAY.getTimeTicks()), () -> {
+			if (this.pending.remove(cache.getUniqueId(), cache))
+				this.save(cache);
+		});
+	}
+
+	/**
+	 * Save the cache right away, such as when the player quits, dropping any waiting save
+	 *
+	 * @param cache
+	 */
+	public void saveNow(PlayerCache cache) {
+		this.pending.remove(cache.getUniqueId(), cache);
+
+		this.save(cache);
+	}
+
+	/**
+	 * Drop the waiting save of the cache, such as when the player quits before
+	 * his data finished loading from the database
+	 *
+	 * @param cache
+	 */
+	public void discard(PlayerCache cache) {
+		this.pending.remove(cache.getUniqueId(), cache);
+	}
+
+	/**
+	 * Save all waiting caches and wait until everything is written, used when the plugin stops or reloads
+	 */
+	public void flush() {
+		for (final PlayerCache cache : new ArrayList<>(this.pending.values()))
+			if (this.pending.remove(cache.getUniqueId(), cache))
+				this.save(cache);
+
+		try {
+			this.writer.submit(() -> {
+			}).get(30, TimeUnit.SECONDS);
+
+		} catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+
+		} catch (final ExecutionException | TimeoutException ex) {
+			Common.error(ex, "Timed out waiting for player data to be saved, some changes may be lost");
+		}
+
+		Debugger.debug("cache", "Saved player data " + this.savedCount.get() + " time(s) for " + this.requestedCount.get()
+				+ " change(s), avoided " + this.avoidedCount.get() + " save(s)");
+	}
+
+	/*
+	 * Queue the cache to be saved to database or its file on the writer thread,
+	 * unless its data are still being loaded from the database
+	 */
+	private void save(PlayerCache cache) {
+		final Player player = cache.toPlayer();
+
+		if (player != null && SenderCache.from(player).isLoadingMySQL()) {
+			Debugger.debug("cache", "Not saving " + cache.getPlayerName() + "'s data while it is loading from the database");
+
+			return;
+		}
+
+		this.writer.execute(() -> {
+			this.savedCount.incrementAndGet();
+
+			try {
+				if (Settings.MySQL.ENABLED)
+					Database.getInstance().saveCache(cache);
+
+				// Serializing holds the cache's lock since it is also changed from async chat
+				else
+					PlayerDataStore.getInstance().save(cache.getUniqueId(), cache.serialize());
+
+			} catch (final Throwable t) {
+				Common.error(t, "Error saving player data of " + cache.getPlayerName());
+			}
+		});
+	}
+
+	/**
+	 * Return how many times caches asked to be saved
+	 *
+	 * @return
+	 */
+	public long getRequestedCount() {
+		return this.requestedCount.get();
+	}
+
+	/**
+	 * Return how many saves were merged into a save already waiting
+	 *
+	 * @return
+	 */
+	public long getAvoidedCount() {
+		return this.avoidedCount.get();
+	}
+
+	/**
+	 * Return how many saves were actually made
+	 *
+	 * @return
+	 */
+	public long getSavedCount() {
+		return this.savedCount.get();
+	}
+}
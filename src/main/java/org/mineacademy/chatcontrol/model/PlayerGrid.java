@@ -0,0 +1,164 @@
+package org.mineacademy.chatcontrol.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.remain.Remain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sorts online players into chunk sized cells per world so that ranged
+ * channels only need to look at players around the sender.
+ *
+ * Positions are sorted on the main thread every few ticks and queries only
+ * read the last sorted snapshot, callers must check the exact distance
+ * themselves since players may have moved since.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PlayerGrid {
+
+	/**
+	 * The singleton instance
+	 */
+	@Getter
+	private static final PlayerGrid instance = new PlayerGrid();
+
+	/**
+	 * Cells are 16x16 blocks, the size of a chunk
+	 */
+	private static final int CELL_SHIFT = 4;
+
+	/**
+	 * How many ticks pass between sorting players into cells
+	 */
+	private static final int REFRESH_TICKS = 5;
+
+	/**
+	 * How many blocks we add to the radius to cover players who moved since the last refresh
+	 */
+	private static final int MARGIN = 16;
+
+	/**
+	 * World unique id : players in that world sorted into cells, replaced as a whole on each refresh
+	 */
+	private volatile Map<UUID, WorldCells> worlds = new HashMap<>();
+
+	/**
+	 * Players who joined or teleported since the last refresh and whose cell we do not know yet
+	 */
+	private final Set<Player> unsorted = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Start sorting players into cells periodically on the main thread
+	 */
+	public static void scheduleTask() {
+		Common.runTimer(REFRESH_TICKS, instance::refresh);
+	}
+
+	/**
+	 * Return players in the same world as the given location who may be within the radius,
+	 * including a few just outside it or in another world
+	 *
+	 * @param center
+	 * @param radius
+	 * @return
+	 */
+	public List<Player> getNearbyPlayers(Location center, int radius) {
+		final World world = center.getWorld();
+		final WorldCells worldCells = this.worlds.get(world.getUID());
+		final List<Player> players = new ArrayList<>(this.unsorted);
+
+		if (worldCells == null)
+			return players;
+
+		final int reach = radius + MARGIN;
+
+		final int minX = (center.getBlockX() - reach) >> CELL_SHIFT;
+		final int maxX = (center.getBlockX() + reach) >> CELL_SHIFT;
+		final int minZ = (center.getBlockZ() - reach) >> CELL_SHIFT;
+		final int maxZ = (center.getBlockZ() + reach) >> CELL_SHIFT;
+
+		// For huge ranges, going through the world's players is faster than its cells
+		if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > worldCells.players.size()) {
+			players.addAll(worldCells.players);
+
+			return players;
+		}
+
+		for (int x = minX; x <= maxX; x++)
+			for (int z = minZ; z <= maxZ; z++) {
+				final List<Player> cell = worldCells.cells.get(toKey(x, z));
+
+				if (cell != null)
+					players.addAll(cell);
+			}
+
+		return players;
+	}
+
+	/**
+	 * Return the player from every query until the next refresh, such as after he joined
+	 * or teleported and we do not know his new position yet
+	 *
+	 * @param player
+	 */
+	public void markMoved(Player player) {
+		this.unsorted.add(player);
+	}
+
+	/*
+	 * Sort all online players into cells by their current position, must be called on the main thread
+	 */
+	private void refresh() {
+		final Set<Player> sorted = new HashSet<>(this.unsorted);
+		final Map<UUID, WorldCells> worlds = new HashMap<>();
+
+		for (final Player online : Remain.getOnlinePlayers()) {
+			final Location location = online.getLocation();
+			final long key = toKey(location.getBlockX() >> CELL_SHIFT, location.getBlockZ() >> CELL_SHIFT);
+			final WorldCells worldCells = worlds.computeIfAbsent(location.getWorld().getUID(), uid -> new WorldCells());
+
+			worldCells.players.add(online);
+			worldCells.cells.computeIfAbsent(key, k -> new ArrayList<>()).add(online);
+		}
+
+		this.worlds = worlds;
+		this.unsorted.removeAll(sorted);
+	}
+
+	/*
+	 * Pack the cell coordinates into one number
+	 */
+	private static long toKey(int x, int z) {
+		return (long) x << 32 | z & 0xffffffffL;
+	}
+
+	/**
+	 * Players of one world, never changed after the refresh that made them
+	 */
+	private static final class WorldCells {
+
+		/**
+		 * All players in the world
+		 */
+		private final List<Player> players = new ArrayList<>();
+
+		/**
+		 * Cell key : players in that cell
+		 */
+		private final Map<Long, List<Player>> cells = new HashMap<>();
+	}
+}
@@ -1,10 +1,13 @@
 package org.mineacademy.chatcontrol.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -36,6 +39,16 @@ import lombok.RequiredArgsConstructor;
  */
 public final class Spy {
 
+	/**
+	 * Online players spying each type, kept up to date by {@link PlayerCache}
+	 */
+	private static final Map<Type, Set<UUID>> typeSpies = new ConcurrentHashMap<>();
+
+	/**
+	 * Online players spying each channel by its name, kept up to date by {@link PlayerCache}
+	 */
+	private static final Map<String, Set<UUID>> channelSpies = new ConcurrentHashMap<>();
+
 	/**
 	 * The type of spying what this is
 	 */
@@ -199,14 +212,7 @@ public final class Spy {
 		if ("none".equalsIgnoreCase(spyFormat) || spyFormat.isEmpty())
 			return;
 
-		// Build component
-		final boolean noPrefix = spyFormat.startsWith("@noprefix ");
-
-		final SimpleComponent main = Format.parse(noPrefix ? spyFormat.substring(9).trim() : spyFormat).build(this.initiator, this.message, this.variables);
-		final SimpleComponent prefix = Format.parse(Settings.Spy.PREFIX).build(this.initiator, this.message, this.variables);
-		final SimpleComponent compounded = noPrefix ? main : main.appendFirst(prefix);
-
-		// Send
+		// Find receivers
 		final List<Player> spyingPlayers = this.channelName != null ? getOnlineSpyingChannelPlayers(this.channelName) : getOnlineSpyingPlayers(this.type);
 
 		// Remove ignored
@@ -221,6 +227,17 @@ public final class Spy {
 			spyingPlayers.clear();
 			spyingPlayers.addAll(event.getRecipients());
 
+			// Skip building the message when nobody here spies and it does not go to other servers
+			if (spyingPlayers.isEmpty() && !(BungeeCord.ENABLED && this.channelBungee))
+				return;
+
+			// Build component
+			final boolean noPrefix = spyFormat.startsWith("@noprefix ");
+
+			final SimpleComponent main = Format.parse(noPrefix ? spyFormat.substring(9).trim() : spyFormat).build(this.initiator, this.message, this.variables);
+			final SimpleComponent prefix = Format.parse(Settings.Spy.PREFIX).build(this.initiator, this.message, this.variables);
+			final SimpleComponent compounded = noPrefix ? main : main.appendFirst(prefix);
+
 			// Broadcast
 			for (final Player spyingPlayer : spyingPlayers) {
 				if (this.initiator instanceof Player && spyingPlayer.equals(this.initiator))
@@ -237,8 +254,8 @@ public final class Spy {
 						this.type.getKey(),
 						this.channelName == null ? "" : this.channelName,
 						this.message,
-						compounded.serialize().toJson(),
-						Remain.toJson(Common.convert(this.ignoredPlayers, UUID::toString)));
+						BungeeCodec.compress(compounded.serialize().toJson()),
+						BungeeCodec.encodeUniqueIds(this.ignoredPlayers));
 		}
 	}
 
@@ -274,28 +291,69 @@ public final class Spy {
 	/* Players */
 	/* ------------------------------------------------------------------------------- */
 
+	/**
+	 * Update what the given player spies in our index, removing him when he goes offline
+	 *
+	 * Internal use only! Use {@link PlayerCache} methods as API means
+	 *
+	 * @param cache
+	 * @param online
+	 */
+	public static void updateSpying(@NonNull PlayerCache cache, boolean online) {
+		final UUID uniqueId = cache.getUniqueId();
+
+		// Only add and remove what changed so that he never goes missing from a set he stays in
+		updateSpying(typeSpies, uniqueId, online ? new HashSet<>(cache.getSpyingSectors()) : Collections.emptySet());
+		updateSpying(channelSpies, uniqueId, online ? new HashSet<>(cache.getSpyingChannels()) : Collections.emptySet());
+	}
+
 	/*
-	 * Return list of online spying players in channel
+	 * Put the unique id into the spy sets of the given keys and remove it from all other sets
 	 */
-	private static List<Player> getOnlineSpyingChannelPlayers(String channelName) {
-		final List<Player> spying = new ArrayList<>();
+	private static <T> void updateSpying(Map<T, Set<UUID>> spiesByKey, UUID uniqueId, Set<T> keys) {
+		for (final T key : keys)
+			spiesByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(uniqueId);
 
-		for (final Player online : Remain.getOnlinePlayers())
-			if (PlayerCache.from(online).isSpyingChannel(channelName) && PlayerUtil.hasPerm(online, Permissions.Command.SPY))
-				spying.add(online);
+		for (final Map.Entry<T, Set<UUID>> entry : spiesByKey.entrySet())
+			if (!keys.contains(entry.getKey()))
+				entry.getValue().remove(uniqueId);
+	}
 
-		return spying;
+	/*
+	 * Return unique ids of online players spying the channel if set, otherwise the type
+	 */
+	private static Set<UUID> getSpies(@Nullable String channelName, Spy.Type type) {
+		final Set<UUID> spies = channelName != null ? channelSpies.get(channelName) : typeSpies.get(type);
+
+		return spies != null ? spies : Collections.emptySet();
+	}
+
+	/*
+	 * Return list of online spying players in channel
+	 */
+	private static List<Player> getOnlineSpyingChannelPlayers(String channelName) {
+		return getOnlineSpyingPlayers(getSpies(channelName, Type.CHAT));
 	}
 
 	/*
 	 * Return list of online spying players
 	 */
 	private static List<Player> getOnlineSpyingPlayers(Spy.Type type) {
+		return getOnlineSpyingPlayers(getSpies(null, type));
+	}
+
+	/*
+	 * Return the given spies who are online and still have the permission to spy
+	 */
+	private static List<Player> getOnlineSpyingPlayers(Set<UUID> spies) {
 		final List<Player> spying = new ArrayList<>();
 
-		for (final Player online : Remain.getOnlinePlayers())
-			if (PlayerCache.from(online).getSpyingSectors().contains(type) && PlayerUtil.hasPerm(online, Permissions.Command.SPY))
+		for (final UUID uniqueId : spies) {
+			final Player online = Remain.getPlayerByUUID(uniqueId);
+
+			if (online != null && PlayerUtil.hasPerm(online, Permissions.Command.SPY))
 				spying.add(online);
+		}
 
 		return spying;
 	}
@@ -5,9 +5,12 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -21,6 +24,7 @@ import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.collection.StrictMap;
 import org.mineacademy.fo.exception.FoException;
+import org.mineacademy.fo.model.Tuple;
 import org.mineacademy.fo.plugin.SimplePlugin;
 
 import lombok.AccessLevel;
@@ -42,21 +46,57 @@ public final class UserMap {
 	@Getter
 	private static volatile UserMap instance = new UserMap();
 
+	/**
+	 * The file is never rewritten because of old lines until it has at least this many lines
+	 */
+	private static final int COMPACT_MIN_LINES = 1000;
+
+	/**
+	 * How many players to pass to the main thread at once when importing from database
+	 */
+	private static final int IMPORT_BATCH_SIZE = 1000;
+
 	/**
 	 * The player name to UUID/nick map
 	 */
 	private final StrictMap<UUID, Record> userMap = new StrictMap<>();
 
 	/**
-	 * The file that holds the map if local file is used
+	 * The same records by lowercase player name
+	 */
+	private final Map<String, Record> nameIndex = new HashMap<>();
+
+	/**
+	 * The same records by lowercase nick without colors
+	 */
+	private final Map<String, Record> nickIndex = new HashMap<>();
+
+	/**
+	 * Lowercase player names sorted for completing names by their beginning
+	 */
+	private final NavigableSet<String> sortedNames = new TreeSet<>();
+
+	/**
+	 * The file that holds the map if local file is used. Changes are appended
+	 * to it and later lines override earlier ones for the same player.
 	 */
 	private final File file = FileUtil.getFile("usermap.csv");
 
+	/**
+	 * How many lines the file has, used to rewrite it once it holds too many old lines
+	 */
+	private int fileLines;
+
 	/**
 	 * Load all usermap data
 	 */
 	public void load() {
-		this.userMap.clear();
+		synchronized (instance) {
+			this.userMap.clear();
+			this.nameIndex.clear();
+			this.nickIndex.clear();
+			this.sortedNames.clear();
+		}
 
 		// Import Essentials file
 		final ServerCache serverCache = ServerCache.getInstance();
@@ -69,12 +109,14 @@ public final class UserMap {
 
 		// Now import our own values, overriding those from Essentials
 		if (Settings.MySQL.ENABLED)
-			for (final Record data : Database.getInstance().getDatas().keySet())
-				this.cacheLocally(data);
+			Database.getInstance().visitRecords(this::cacheLocally);
 
 		else
-			this.loadLines(this.file);
+			synchronized (this.file) {
+				this.fileLines = this.loadLines(this.file);
+			}
 
+		// Compacts the file removing old lines
 		Common.runAsync(this::save);
 	}
 
@@ -101,12 +143,19 @@ public final class UserMap {
 	}
 
 	/*
-	 * Load CSV name,uuid,nick lines from the given file
+	 * Load CSV name,uuid,nick lines from the given file, returning how many lines were read
 	 */
-	private void loadLines(File file) {
+	private int loadLines(File file) {
+		int count = 0;
+
 		if (file.exists())
-			for (final String line : FileUtil.readLines(file))
+			for (final String line : FileUtil.readLines(file)) {
 				this.cacheLocally(this.parseLine(line));
+
+				count++;
+			}
+
+		return count;
 	}
 
 	/*
@@ -142,29 +191,71 @@ public final class UserMap {
 		if (SimplePlugin.getInstance().isEnabled() && !SimplePlugin.isReloading())
 			Valid.checkAsync("Saving usermap must be done async!");
 
-		synchronized (this.userMap) {
-			final Collection<Record> datas = this.userMap.values();
+		if (Settings.MySQL.ENABLED) {
+			final Collection<Record> datas;
 
-			if (Settings.MySQL.ENABLED)
-				Database.getInstance().addUsersToMap(datas);
+			synchronized (instance) {
+				datas = new ArrayList<>(this.userMap.values());
+			}
 
-			else
-				saveFile();
+			Database.getInstance().addUsersToMap(datas);
 		}
+
+		else
+			saveFile();
 	}
 
 	/*
-	 * Saves file data
+	 * Rewrite the file with one sorted line per player
 	 */
 	private void saveFile() {
-		final List<String> lines = new ArrayList<>();
+		synchronized (this.file) {
+			final List<String> lines = new ArrayList<>();
+
+			// Take the records while holding the file so that no appended change gets lost
+			synchronized (instance) {
+				for (final Record data : this.userMap.values())
+					lines.add(this.toLine(data));
+			}
 
-		for (final Record data : this.userMap.values())
-			lines.add(data.getName() + "," + data.getUniqueId() + (data.getNick() != null ? "," + data.getNick() : ""));
+			Collections.sort(lines);
 
-		Collections.sort(lines);
+			FileUtil.write(this.file, lines, StandardOpenOption.TRUNCATE_EXISTING);
+			this.fileLines = lines.size();
+		}
+	}
 
-		FileUtil.write(this.file, lines, StandardOpenOption.TRUNCATE_EXISTING);
+	/*
+	 * Append the current record of the given player to the file, rewriting it when most of its lines are outdated.
+	 *
+	 * Appends run on the async pool in any order, so we always write what we have now
+	 * instead of the record from when the change was made, the last line then always wins.
+	 */
+	private void appendLine(UUID uniqueId) {
+		synchronized (this.file) {
+			final Record data;
+			final int records;
+
+			synchronized (instance) {
+				data = this.userMap.get(uniqueId);
+				records = this.userMap.size();
+			}
+
+			if (data == null)
+				return;
+
+			FileUtil.write(this.file, Collections.singletonList(this.toLine(data)), StandardOpenOption.APPEND);
+
+			if (++this.fileLines > COMPACT_MIN_LINES && this.fileLines > records * 2)
+				this.saveFile();
+		}
+	}
+
+	/*
+	 * Convert the record into a CSV line
+	 */
+	private String toLine(Record data) {
+		return data.getName() + "," + data.getUniqueId() + (data.getNick() != null ? "," + data.getNick() : "");
 	}
 
 	/**
@@ -201,7 +292,7 @@ public final class UserMap {
 				if (Settings.MySQL.ENABLED)
 					Database.getInstance().addUserToMap(name, uniqueId, nick);
 				else
-					this.save();
+					this.appendLine(uniqueId);
 			});
 		}
 	}
@@ -213,31 +304,91 @@ public final class UserMap {
 	 */
 	public void cacheLocally(Record data) {
 		synchronized (instance) {
+			final Record oldData = this.userMap.get(data.getUniqueId());
+
+			if (oldData != null)
+				this.unindex(oldData);
+
 			this.userMap.override(data.getUniqueId(), data);
+			this.index(data);
 		}
 	}
 
+	/*
+	 * Add the record to name and nick indexes, replacing any other player with the same name or nick
+	 */
+	private void index(Record data) {
+		final String name = data.getName().toLowerCase();
+
+		this.nameIndex.put(name, data);
+		this.sortedNames.add(name);
+
+		if (data.getNick() != null)
+			this.nickIndex.put(toPlainNick(data.getNick()), data);
+	}
+
+	/*
+	 * Remove the record from name and nick indexes unless they already point to another player
+	 */
+	private void unindex(Record data) {
+		final String name = data.getName().toLowerCase();
+
+		if (this.nameIndex.remove(name, data))
+			this.sortedNames.remove(name);
+
+		if (data.getNick() != null)
+			this.nickIndex.remove(toPlainNick(data.getNick()), data);
+	}
+
+	/*
+	 * Return the nick in the form we index it, without colors and lowercased
+	 */
+	private static String toPlainNick(String nick) {
+		return Common.stripColors(nick).toLowerCase();
+	}
+
 	/**
 	 * Import database entries to data.db
 	 */
 	public void importFromDb() {
 		Valid.checkAsync("Importing from db must be called async!");
 
-		synchronized (instance) {
-			final Map<Record, SerializedMap> datas = Database.getInstance().getDatas();
+		final List<Tuple<Record, SerializedMap>> batch = new ArrayList<>();
 
-			Common.runLater(() -> {
-				for (final Map.Entry<Record, SerializedMap> entry : datas.entrySet()) {
-					final Record record = entry.getKey();
-					final SerializedMap data = entry.getValue();
+		// Hand players over to the main thread in batches instead of holding the whole table,
+		// scanning without our lock so that the main thread can merge batches meanwhile
+		Database.getInstance().visitDatas((record, data) -> {
+			batch.add(new Tuple<>(record, data));
 
-					this.cacheLocally(record);
-					PlayerCache.loadOrUpdateCache(record.getName(), record.getUniqueId(), data);
-				}
+			if (batch.size() >= IMPORT_BATCH_SIZE) {
+				this.importBatch(new ArrayList<>(batch));
 
-				this.saveFile();
-			});
-		}
+				batch.clear();
+			}
+		});
+
+		this.importBatch(batch);
+
+		// Runs after all batches were merged, then writes the file off the main thread
+		Common.runLater(() -> Common.runAsync(this::saveFile));
+	}
+
+	/*
+	 * Load the given imported players on the main thread
+	 */
+	private void importBatch(List<Tuple<Record, SerializedMap>> batch) {
+		Common.runLater(() -> {
+			synchronized (instance) {
+				for (final Tuple<Record, SerializedMap> tuple : batch)
+					this.cacheLocally(tuple.getKey());
+			}
+
+			for (final Tuple<Record, SerializedMap> tuple : batch) {
+				final Record record = tuple.getKey();
+
+				PlayerCache.loadOrUpdateCache(record.getName(), record.getUniqueId(), tuple.getValue());
+			}
+		});
 	}
 
 	/**
@@ -281,11 +432,9 @@ public final class UserMap {
 	@Nullable
 	public String getName(UUID uuid) {
 		synchronized (instance) {
-			for (final Record data : this.userMap.values())
-				if (data.getUniqueId().equals(uuid))
-					return data.getName();
+			final Record data = this.userMap.get(uuid);
 
-			return null;
+			return data != null ? data.getName() : null;
 		}
 	}
 
@@ -298,11 +447,9 @@ public final class UserMap {
 	@Nullable
 	public String getNick(String name) {
 		synchronized (instance) {
-			for (final Record data : this.userMap.values())
-				if (data.getName().equalsIgnoreCase(name))
-					return data.getNick();
+			final Record data = this.nameIndex.get(name.toLowerCase());
 
-			return null;
+			return data != null ? data.getNick() : null;
 		}
 	}
 
@@ -315,11 +462,9 @@ public final class UserMap {
 	@Nullable
 	public String getName(@NonNull String nick) {
 		synchronized (instance) {
-			for (final Record data : this.userMap.values())
-				if (data.getNick() != null && data.getNick().equalsIgnoreCase(nick))
-					return data.getName();
+			final Record data = this.nickIndex.get(toPlainNick(nick));
 
-			return null;
+			return data != null ? data.getName() : null;
 		}
 	}
 
@@ -332,11 +477,31 @@ public final class UserMap {
 	 */
 	public boolean isPlayerNameStored(@NonNull String name) {
 		synchronized (instance) {
-			for (final Record data : this.userMap.values())
-				if (data.getName().equalsIgnoreCase(name))
-					return true;
+			return this.nameIndex.containsKey(name.toLowerCase());
+		}
+	}
 
-			return false;
+	/**
+	 * Return stored player names beginning with the given text case insensitive,
+	 * sorted alphabetically
+	 *
+	 * @param prefix
+	 * @param limit the maximum amount of names to return
+	 * @return
+	 */
+	public List<String> getNamesStartingWith(@NonNull String prefix, int limit) {
+		synchronized (instance) {
+			final List<String> names = new ArrayList<>();
+			final String lowercasePrefix = prefix.toLowerCase();
+
+			for (final String name : this.sortedNames.tailSet(lowercasePrefix, true)) {
+				if (!name.startsWith(lowercasePrefix) || names.size() >= limit)
+					break;
+
+				names.add(this.nameIndex.get(name).getName());
+			}
+
+			return names;
 		}
 	}
 
@@ -349,11 +514,9 @@ public final class UserMap {
 	@Nullable
 	public Record getRecord(String nameOrNick) {
 		synchronized (instance) {
-			for (final Record data : this.userMap.values())
-				if (data.getName().equalsIgnoreCase(nameOrNick) || (data.getNick() != null && data.getNick().equalsIgnoreCase(nameOrNick)))
-					return data;
+			final Record data = this.nameIndex.get(nameOrNick.toLowerCase());
 
-			return null;
+			return data != null ? data : this.nickIndex.get(toPlainNick(nameOrNick));
 		}
 	}
 
@@ -366,11 +529,7 @@ public final class UserMap {
 	@Nullable
 	public Record getRecord(UUID uniqueId) {
 		synchronized (instance) {
-			for (final Record data : this.userMap.values())
-				if (data.getUniqueId().equals(uniqueId))
-					return data;
-
-			return null;
+			return this.userMap.get(uniqueId);
 		}
 	}
 
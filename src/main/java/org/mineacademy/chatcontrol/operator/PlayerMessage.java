@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
@@ -544,6 +545,16 @@ public abstract class PlayerMessage extends Operator {
 	 */
 	public static abstract class PlayerMessageCheck<T extends PlayerMessage> extends OperatorCheck<T> {
 
+		/**
+		 * How many times we built a message component
+		 */
+		private static final AtomicLong renderCount = new AtomicLong();
+
+		/**
+		 * How many times we sent a component built for an earlier receiver
+		 */
+		private static final AtomicLong reuseCount = new AtomicLong();
+
 		/**
 		 * The message type
 		 */
@@ -576,6 +587,11 @@ public abstract class PlayerMessage extends Operator {
 		 */
 		private boolean executed;
 
+		/**
+		 * The message prepared for the current operator, reused for all its receivers
+		 */
+		private Render render;
+
 		/**
 		 * @param player
 		 * @param message
@@ -675,6 +691,8 @@ public abstract class PlayerMessage extends Operator {
 				// Execute main operators
 				executeOperators(message);
 			}
+
+			Debugger.debug("operator", "\tbuilt messages " + renderCount.get() + " time(s), reused them " + reuseCount.get() + " time(s) in total");
 		}
 
 		/**
@@ -947,63 +965,47 @@ public abstract class PlayerMessage extends Operator {
 			final String message = this.pickedMessage;
 
 			if (!message.isEmpty() && !"none".equals(message)) {
-				String prefix = operator.getPrefix();
-				String json;
-				String plainMessage;
+				final Render render = this.render(operator, message);
 
-				// Send message as JSON
-				if ("[JSON]".equals(prefix) || message.startsWith("[JSON]")) {
-					final String toSend = replaceVariables(message.startsWith("[JSON]") ? message : prefix + message, operator);
+				String json = null;
+				String plainMessage = null;
 
-					// Prepare message we send to bungee
-					json = toSend.replace("[JSON]", "").trim();
+				// Send message as JSON
+				if (render.json != null) {
 
 					// Send whatever part starts with JSON
-					Common.tellNoPrefix(receiver, toSend);
+					Common.tellNoPrefix(receiver, render.text);
 
-					plainMessage = TextComponent.toLegacyText(Remain.toComponent(json));
+					json = render.json;
+					plainMessage = render.plainMessage;
 				}
 
-				// Send as interactive format otherwise
-				else {
-					final String colorlessMessage = Common.stripColors(message);
-
-					// Support interactive chat
-					if (ChatUtil.isInteractive(colorlessMessage)) {
-						Common.tell(receiver, message);
-
-						// Remove the first <> prefix
-						plainMessage = message.replaceFirst("<[a-zA-Z]+>", "");
-						json = null;
-
-					} else {
-
-						// Add the main part and add prefix for all lines
-						final Format format = Format.isFormatLoaded(message) ? Format.findFormat(message) : Format.parse("{message}");
+				// Support interactive chat
+				else if (render.format == null) {
+					Common.tell(receiver, message);
 
-						// Construct
-						prefix = prefix != null ? prefix + (prefix.endsWith(" ") ? "" : " ") : "";
-						String replaced = replaceVariables(prefix + message + Common.getOrEmpty(operator.getSuffix()), operator);
-
-						// Support centering
-						final String[] replacedLines = replaced.split("\n");
+					// Remove the first <> prefix
+					plainMessage = message.replaceFirst("<[a-zA-Z]+>", "");
+				}
 
-						for (int i = 0; i < replacedLines.length; i++) {
-							final String line = replacedLines[i];
+				// Send as interactive format otherwise
+				else {
+					SimpleComponent component = render.component;
 
-							if (Common.stripColors(line).startsWith("<center>"))
-								replacedLines[i] = ChatUtil.center(line.replace("<center>", "").trim());
-						}
+					// Only variables for the receiver are left, build the prepared text for him
+					if (component == null) {
+						component = render.format.build(getMessagePlayerForVariables(), render.text);
 
-						replaced = String.join("\n", replacedLines);
+						renderCount.incrementAndGet();
 
-						// Build again
-						final SimpleComponent component = format.build(getMessagePlayerForVariables(), replaced);
+					} else
+						reuseCount.incrementAndGet();
 
-						// Send
-						component.send(receiver);
+					// Send
+					component.send(receiver);
 
-						// Prepare message we send to bungee
+					// Prepare message we send to bungee, only needed once
+					if (!this.executed) {
 						final TextComponent textComponent = component.getTextComponent();
 
 						json = Remain.toJson(textComponent);
@@ -1043,6 +1045,67 @@ public abstract class PlayerMessage extends Operator {
 			return this.receiver;
 		}
 
+		/**
+		 * Return true if the sender and its variables change for each receiver,
+		 * in which case we cannot reuse the message prepared for an earlier receiver
+		 *
+		 * @return
+		 */
+		protected boolean hasVariablesPerReceiver() {
+			return false;
+		}
+
+		/*
+		 * Prepare the message for all receivers the first time it is shown, or return
+		 * what we prepared before if the variables do not depend on the receiver
+		 */
+		private Render render(T operator, String message) {
+			if (this.render != null && this.render.operator == operator && this.render.message.equals(message) && !this.hasVariablesPerReceiver())
+				return this.render;
+
+			final Render render = new Render(operator, message);
+			String prefix = operator.getPrefix();
+
+			if ("[JSON]".equals(prefix) || message.startsWith("[JSON]")) {
+				render.text = replaceVariables(message.startsWith("[JSON]") ? message : prefix + message, operator);
+				render.json = render.text.replace("[JSON]", "").trim();
+				render.plainMessage = TextComponent.toLegacyText(Remain.toComponent(render.json));
+			}
+
+			else if (!ChatUtil.isInteractive(Common.stripColors(message))) {
+
+				// Add the main part and add prefix for all lines
+				render.format = Format.isFormatLoaded(message) ? Format.findFormat(message) : Format.parse("{message}");
+
+				// Construct
+				prefix = prefix != null ? prefix + (prefix.endsWith(" ") ? "" : " ") : "";
+				final String replaced = replaceVariables(prefix + message + Common.getOrEmpty(operator.getSuffix()), operator);
+
+				// Support centering
+				final String[] replacedLines = replaced.split("\n");
+
+				for (int i = 0; i < replacedLines.length; i++) {
+					final String line = replacedLines[i];
+
+					if (Common.stripColors(line).startsWith("<center>"))
+						replacedLines[i] = ChatUtil.center(line.replace("<center>", "").trim());
+				}
+
+				render.text = String.join("\n", replacedLines);
+
+				// When variables come from the sender, everyone sees the same component
+				if (getMessagePlayerForVariables() == this.sender && !this.hasVariablesPerReceiver()) {
+					render.component = render.format.build(this.sender, render.text);
+
+					renderCount.incrementAndGet();
+				}
+			}
+
+			this.render = render;
+
+			return render;
+		}
+
 		/*
 		 * Replace all kinds of check variables
 		 */
@@ -1060,6 +1123,66 @@ public abstract class PlayerMessage extends Operator {
 		protected SerializedMap prepareVariables(T operator) {
 			return super.prepareVariables(operator).putArray("broadcast_group", operator.getGroup());
 		}
+
+		/**
+		 * Return how many times we built a message component
+		 *
+		 * @return
+		 */
+		public static long getRenderCount() {
+			return renderCount.get();
+		}
+
+		/**
+		 * Return how many times we sent a component built for an earlier receiver
+		 *
+		 * @return
+		 */
+		public static long getReuseCount() {
+			return reuseCount.get();
+		}
+	}
+
+	/**
+	 * Represents a message prepared once and shown to many receivers
+	 */
+	@RequiredArgsConstructor
+	private static final class Render {
+
+		/**
+		 * The operator we prepared the message for
+		 */
+		private final PlayerMessage operator;
+
+		/**
+		 * The picked message
+		 */
+		private final String message;
+
+		/**
+		 * The message with sender variables replaced, null for interactive chat
+		 */
+		private String text;
+
+		/**
+		 * The message as JSON to send over BungeeCord, null if not sent as JSON
+		 */
+		private String json;
+
+		/**
+		 * The message without formatting, only set for JSON messages
+		 */
+		private String plainMessage;
+
+		/**
+		 * The format to build the message with, null for JSON or interactive chat
+		 */
+		private Format format;
+
+		/**
+		 * The built message, null if it has variables for each receiver
+		 */
+		private SimpleComponent component;
 	}
 
 	/**
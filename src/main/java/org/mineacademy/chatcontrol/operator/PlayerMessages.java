@@ -250,5 +250,15 @@ public final class PlayerMessages extends RuleSetReader<PlayerMessage> {
 			this.sender = receiver;
 			this.senderCache = SenderCache.from(receiver);
 		}
+
+		/**
+		 * Each receiver is the sender of his own message, so it must be prepared for each of them
+		 *
+		 * @see org.mineacademy.chatcontrol.operator.PlayerMessage.PlayerMessageCheck#hasVariablesPerReceiver()
+		 */
+		@Override
+		protected boolean hasVariablesPerReceiver() {
+			return true;
+		}
 	}
 }
@@ -2,6 +2,7 @@ package org.mineacademy.chatcontrol.operator;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
@@ -181,6 +182,21 @@ public class Rule extends RuleOperator {
 		 */
 		private Matcher matcher;
 
+		/**
+		 * The prefilter captured together with the operators
+		 */
+		private RuleIndex index = RuleIndex.EMPTY;
+
+		/**
+		 * Slots of rules that can match {@link #candidatesMessage}
+		 */
+		private BitSet candidates;
+
+		/**
+		 * The message the candidates were found for, rules may edit it
+		 */
+		private String candidatesMessage;
+
 		/**
 		 * @param sender
 		 * @param message
@@ -201,14 +217,12 @@ public class Rule extends RuleOperator {
 			if (!Settings.Rules.APPLY_ON.contains(type))
 				return new ArrayList<>();
 
-			// Get all rules and make a copy
-			final List<RuleOperator> rules = new ArrayList<>(Rules.getInstance().getRules(type));
+			// Take rules and the prefilter from the same load
+			final Rules.Loaded loaded = Rules.getInstance().getLoaded();
 
-			// Import other rules to check
-			for (final Rule.Type toImport : Rules.getInstance().getImports().getOrDefault(type, new ArrayList<>()))
-				rules.addAll(0, Rules.getInstance().getRules(toImport));
+			this.index = loaded.getIndex();
 
-			return rules;
+			return loaded.getEffectiveRules().get(type);
 		}
 
 		/**
@@ -228,6 +242,10 @@ public class Rule extends RuleOperator {
 			if (ruleEvaluated.getIgnoreTypes().contains(type))
 				return;
 
+			// Skip rules whose required text is not in the message
+			if (!isCandidate(ruleEvaluated))
+				return;
+
 			final String originalMessage = new String(message);
 			String messageMatched = new String(message);
 
@@ -288,6 +306,19 @@ public class Rule extends RuleOperator {
 			}
 		}
 
+		/*
+		 * Return true if the rule can match the message according to the prefilter,
+		 * finding candidates again when a previous rule has edited the message
+		 */
+		private boolean isCandidate(Rule rule) {
+			if (this.candidates == null || this.candidatesMessage != this.message) {
+				this.candidates = this.index.findCandidates(this.message);
+				this.candidatesMessage = this.message;
+			}
+
+			return this.index.isCandidate(rule, this.candidates);
+		}
+
 		/**
 		 * @see org.mineacademy.chatcontrol.model.Checkable#canFilter(org.bukkit.command.CommandSender, java.lang.String, org.mineacademy.chatcontrol.operator.Operator)
 		 */
@@ -0,0 +1,514 @@
+package org.mineacademy.chatcontrol.operator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.mineacademy.chatcontrol.settings.Settings;
+import org.mineacademy.fo.ChatUtil;
+import org.mineacademy.fo.Common;
+
+/**
+ * Represents a precompiled prefilter over loaded rules.
+ *
+ * For each rule we extract literal text that every match of its regex
+ * must contain and compile all of it into one Aho-Corasick automaton.
+ * A single pass over the message then tells which rules can possibly
+ * match so only those run their full pattern. Rules we cannot safely
+ * extract text from are always evaluated.
+ */
+public final class RuleIndex {
+
+	/**
+	 * An index with no rules, every rule is a candidate
+	 */
+	public static final RuleIndex EMPTY = new RuleIndex(new IdentityHashMap<>(), new BitSet(), new char[][] { new char[0] }, new int[][] { new int[0] }, new int[] { 0 }, new int[][] { new int[0] });
+
+	/**
+	 * Rule to its slot in the candidate set
+	 */
+	private final Map<Rule, Integer> slots;
+
+	/**
+	 * Slots of rules without any extracted literal, always candidates
+	 */
+	private final BitSet alwaysCandidates;
+
+	/**
+	 * Automaton transitions per state, sorted characters and their target states
+	 */
+	private final char[][] transitionKeys;
+	private final int[][] transitionTargets;
+
+	/**
+	 * Failure link per state
+	 */
+	private final int[] failures;
+
+	/**
+	 * Rule slots found when reaching the state, including those of failure links
+	 */
+	private final int[][] outputs;
+
+	private RuleIndex(Map<Rule, Integer> slots, BitSet alwaysCandidates, char[][] transitionKeys, int[][] transitionTargets, int[] failures, int[][] outputs) {
+		this.slots = slots;
+		this.alwaysCandidates = alwaysCandidates;
+		this.transitionKeys = transitionKeys;
+		this.transitionTargets = transitionTargets;
+		this.failures = failures;
+		this.outputs = outputs;
+	}
+
+	/**
+	 * Return the slots of all rules that can possibly match the given message
+	 *
+	 * @param message
+	 * @return
+	 */
+	public BitSet findCandidates(String message) {
+		final BitSet candidates = (BitSet) this.alwaysCandidates.clone();
+		final String normalized = normalize(message);
+
+		int state = 0;
+
+		for (int i = 0; i < normalized.length(); i++) {
+			final char character = fold(normalized.charAt(i));
+			int next;
+
+			while ((next = this.findTransition(state, character)) == -1 && state != 0)
+				state = this.failures[state];
+
+			state = next == -1 ? 0 : next;
+
+			for (final int slot : this.outputs[state])
+				candidates.set(slot);
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Return true if the given rule is among the candidates, rules
+	 * not known to this index are always candidates
+	 *
+	 * @param rule
+	 * @param candidates
+	 * @return
+	 */
+	public boolean isCandidate(Rule rule, BitSet candidates) {
+		final Integer slot = this.slots.get(rule);
+
+		return slot == null || candidates.get(slot);
+	}
+
+	/*
+	 * Find the target state for the given character or -1 if none
+	 */
+	private int findTransition(int state, char character) {
+		final int index = Arrays.binarySearch(this.transitionKeys[state], character);
+
+		return index < 0 ? -1 : this.transitionTargets[state][index];
+	}
+
+	/* ------------------------------------------------------------------------------- */
+	/* Static */
+	/* ------------------------------------------------------------------------------- */
+
+	/**
+	 * Compile a new index for the given rules
+	 *
+	 * @param rules
+	 * @return
+	 */
+	public static RuleIndex build(List<? extends Rule> rules) {
+		final Map<Rule, Integer> slots = new IdentityHashMap<>();
+		final BitSet alwaysCandidates = new BitSet();
+
+		final List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+		final List<List<Integer>> trieOutputs = new ArrayList<>();
+
+		trie.add(new TreeMap<>());
+		trieOutputs.add(new ArrayList<>());
+
+		for (final Rule rule : rules) {
+			if (slots.containsKey(rule))
+				continue;
+
+			final int slot = slots.size();
+			slots.put(rule, slot);
+
+			// Before replace alters the message prior to matching, so we cannot prefilter it
+			final List<String> literals = rule.getBeforeReplace().isEmpty() ? extractLiterals(rule.getPattern()) : null;
+
+			if (literals == null) {
+				alwaysCandidates.set(slot);
+
+				continue;
+			}
+
+			for (final String literal : literals) {
+				int state = 0;
+
+				for (int i = 0; i < literal.length(); i++) {
+					final char character = fold(literal.charAt(i));
+					Integer next = trie.get(state).get(character);
+
+					if (next == null) {
+						next = trie.size();
+
+						trie.add(new TreeMap<>());
+						trieOutputs.add(new ArrayList<>());
+						trie.get(state).put(character, next);
+					}
+
+					state = next;
+				}
+
+				trieOutputs.get(state).add(slot);
+			}
+		}
+
+		final int size = trie.size();
+		final char[][] transitionKeys = new char[size][];
+		final int[][] transitionTargets = new int[size][];
+		final int[] failures = new int[size];
+		final int[][] outputs = new int[size][];
+
+		for (int state = 0; state < size; state++) {
+			final TreeMap<Character, Integer> transitions = trie.get(state);
+			final char[] keys = new char[transitions.size()];
+			final int[] targets = new int[transitions.size()];
+			int index = 0;
+
+			for (final Map.Entry<Character, Integer> entry : transitions.entrySet()) {
+				keys[index] = entry.getKey();
+				targets[index++] = entry.getValue();
+			}
+
+			transitionKeys[state] = keys;
+			transitionTargets[state] = targets;
+		}
+
+		// Compute failure links breadth first and merge outputs along them
+		final Queue<Integer> queue = new ArrayDeque<>();
+		outputs[0] = toArray(trieOutputs.get(0));
+
+		for (final int child : transitionTargets[0]) {
+			failures[child] = 0;
+			queue.add(child);
+		}
+
+		while (!queue.isEmpty()) {
+			final int state = queue.poll();
+			final List<Integer> stateOutputs = new ArrayList<>(trieOutputs.get(state));
+
+			for (final int slot : outputs[failures[state]])
+				if (!stateOutputs.contains(slot))
+					stateOutputs.add(slot);
+
+			outputs[state] = toArray(stateOutputs);
+
+			for (int i = 0; i < transitionKeys[state].length; i++) {
+				final char character = transitionKeys[state][i];
+				final int child = transitionTargets[state][i];
+				int failure = failures[state];
+				int index;
+
+				while ((index = Arrays.binarySearch(transitionKeys[failure], character)) < 0 && failure != 0)
+					failure = failures[failure];
+
+				failures[child] = index < 0 ? 0 : transitionTargets[failure][index];
+				queue.add(child);
+			}
+		}
+
+		return new RuleIndex(slots, alwaysCandidates, transitionKeys, transitionTargets, failures, outputs);
+	}
+
+	/*
+	 * Convert the list into a primitive array
+	 */
+	private static int[] toArray(List<Integer> list) {
+		final int[] array = new int[list.size()];
+
+		for (int i = 0; i < array.length; i++)
+			array[i] = list.get(i);
+
+		return array;
+	}
+
+	/*
+	 * Prepare the message the same way Common#compileMatcher does before matching
+	 */
+	private static String normalize(String message) {
+		if (Settings.Rules.STRIP_COLORS)
+			message = Common.stripColors(message);
+
+		if (Settings.Rules.STRIP_ACCENTS)
+			message = ChatUtil.replaceDiacritic(message);
+
+		return message;
+	}
+
+	/*
+	 * Fold the character case so that case insensitive patterns are found too,
+	 * folding case sensitive patterns only yields more candidates which is safe
+	 */
+	private static char fold(char character) {
+		return Character.toLowerCase(Character.toUpperCase(character));
+	}
+
+	/*
+	 * Return literals of which at least one is contained in every match
+	 * of the pattern, one per top level alternative, or null if we cannot tell
+	 */
+	private static List<String> extractLiterals(Pattern pattern) {
+		final int flags = pattern.flags();
+		final String regex = pattern.pattern();
+
+		if ((flags & Pattern.LITERAL) != 0)
+			return regex.isEmpty() ? null : Arrays.asList(regex);
+
+		if ((flags & (Pattern.COMMENTS | Pattern.CANON_EQ)) != 0)
+			return null;
+
+		final List<String> literals = new ArrayList<>();
+		StringBuilder run = new StringBuilder();
+		String longest = "";
+
+		for (int i = 0; i < regex.length();) {
+			final char character = regex.charAt(i);
+
+			// Top level alternative, each must have its own literal
+			if (character == '|') {
+				longest = longer(longest, run);
+
+				if (longest.isEmpty())
+					return null;
+
+				literals.add(longest);
+				longest = "";
+				run = new StringBuilder();
+				i++;
+
+				continue;
+			}
+
+			// Groups, classes, wildcards and anchors end the current run
+			if (character == '(' || character == '[' || character == '.' || character == '^' || character == '$') {
+				final int end;
+
+				if (character == '(')
+					end = skipGroup(regex, i);
+
+				else if (character == '[')
+					end = skipClass(regex, i);
+
+				else
+					end = i + 1;
+
+				if (end == -1)
+					return null;
+
+				longest = longer(longest, run);
+				run = new StringBuilder();
+				i = character == '^' || character == '$' ? end : skipQuantifier(regex, end);
+
+				if (i == -1)
+					return null;
+
+				continue;
+			}
+
+			char literal;
+			int end = i + 1;
+
+			if (character == '\\') {
+				if (end >= regex.length())
+					return null;
+
+				final char escaped = regex.charAt(end++);
+
+				if (!Character.isLetterOrDigit(escaped))
+					literal = escaped;
+
+				else if ("tnrfae".indexOf(escaped) != -1)
+					literal = "\t\n\r\f\u0007\u001B".charAt("tnrfae".indexOf(escaped));
+
+				else if ("dDsSwWhHvVRXbBAGzZpP".indexOf(escaped) != -1) {
+
+					// Skip the property name of \p{Name}
+					if ((escaped == 'p' || escaped == 'P') && end < regex.length())
+						end = regex.charAt(end) == '{' ? regex.indexOf('}', end) + 1 : end + 1;
+
+					if (end == 0)
+						return null;
+
+					longest = longer(longest, run);
+					run = new StringBuilder();
+					i = "bBAGzZ".indexOf(escaped) != -1 ? end : skipQuantifier(regex, end);
+
+					if (i == -1)
+						return null;
+
+					continue;
+
+				} else
+					return null;
+
+			} else if ("*+?{".indexOf(character) != -1)
+				return null;
+
+			else
+				literal = character;
+
+			run.append(literal);
+
+			// Quantified character, optional ones must not be required
+			if (end < regex.length() && "*+?{".indexOf(regex.charAt(end)) != -1) {
+				final char quantifier = regex.charAt(end);
+				final boolean required = quantifier == '+' || quantifier == '{' && end + 1 < regex.length() && regex.charAt(end + 1) != '0' && regex.charAt(end + 1) != ',';
+
+				if (!required)
+					run.setLength(run.length() - 1);
+
+				longest = longer(longest, run);
+				run = new StringBuilder();
+				end = skipQuantifier(regex, end);
+
+				if (end == -1)
+					return null;
+			}
+
+			i = end;
+		}
+
+		longest = longer(longest, run);
+
+		if (longest.isEmpty())
+			return null;
+
+		literals.add(longest);
+
+		return literals;
+	}
+
+	/*
+	 * Return the longer of the two
+	 */
+	private static String longer(String longest, StringBuilder run) {
+		return run.length() > longest.length() ? run.toString() : longest;
+	}
+
+	/*
+	 * Return the index after the group starting at the given index, or -1 if we cannot parse it
+	 */
+	private static int skipGroup(String regex, int start) {
+
+		// Inline comments mode would make whitespace insignificant
+		if (regex.startsWith("(?", start)) {
+			int flagEnd = start + 2;
+
+			while (flagEnd < regex.length() && (Character.isLetter(regex.charAt(flagEnd)) || regex.charAt(flagEnd) == '-'))
+				flagEnd++;
+
+			if (regex.substring(start + 2, flagEnd).indexOf('x') != -1)
+				return -1;
+		}
+
+		int depth = 0;
+
+		for (int i = start; i < regex.length(); i++) {
+			final char character = regex.charAt(i);
+
+			if (character == '\\') {
+				if (regex.startsWith("\\Q", i))
+					return -1;
+
+				i++;
+
+			} else if (character == '[') {
+				i = skipClass(regex, i) - 1;
+
+				if (i < 0)
+					return -1;
+
+			} else if (character == '(')
+				depth++;
+
+			else if (character == ')' && --depth == 0)
+				return i + 1;
+		}
+
+		return -1;
+	}
+
+	/*
+	 * Return the index after the character class starting at the given index, or -1 if we cannot parse it
+	 */
+	private static int skipClass(String regex, int start) {
+		int depth = 0;
+
+		for (int i = start; i < regex.length(); i++) {
+			final char character = regex.charAt(i);
+
+			if (character == '\\') {
+				if (regex.startsWith("\\Q", i))
+					return -1;
+
+				i++;
+
+			} else if (character == '[') {
+				depth++;
+
+				// A closing bracket right after the opening one is a literal
+				if (i + 1 < regex.length() && regex.charAt(i + 1) == '^')
+					i++;
+
+				if (i + 1 < regex.length() && regex.charAt(i + 1) == ']')
+					i++;
+
+			} else if (character == ']' && --depth == 0)
+				return i + 1;
+		}
+
+		return -1;
+	}
+
+	/*
+	 * Return the index after the quantifier at the given index if any, or -1 if we cannot parse it
+	 */
+	private static int skipQuantifier(String regex, int index) {
+		if (index >= regex.length())
+			return index;
+
+		final char character = regex.charAt(index);
+
+		if (character == '{') {
+			final int end = regex.indexOf('}', index);
+
+			if (end == -1)
+				return -1;
+
+			index = end + 1;
+
+		} else if (character == '*' || character == '+' || character == '?')
+			index++;
+
+		else
+			return index;
+
+		// Lazy or possessive suffix
+		if (index < regex.length() && (regex.charAt(index) == '?' || regex.charAt(index) == '+'))
+			index++;
+
+		return index;
+	}
+}
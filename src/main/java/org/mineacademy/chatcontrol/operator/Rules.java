@@ -18,12 +18,13 @@ import org.mineacademy.fo.debug.Debugger;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.model.RuleSetReader;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 
 /**
  * Represents the core engine for rules
  */
-@Getter
 public final class Rules<T extends Rule> extends RuleSetReader<T> {
 
 	/**
@@ -33,14 +34,15 @@ public final class Rules<T extends Rule> extends RuleSetReader<T> {
 	private static final Rules<? extends Rule> instance = new Rules<>();
 
 	/**
-	 * The loaded rules sorted by type
+	 * The loaded rules, replaced as a whole on each load so that
+	 * async checks never see a half-loaded state
 	 */
-	private final Map<Rule.Type, List<T>> rules = new HashMap<>();
+	private volatile Loaded loaded = new Loaded(new HashMap<>(), new HashMap<>(), new HashMap<>(), RuleIndex.EMPTY);
 
 	/**
-	 * Defines what other rules the rules on keys should import?
+	 * Defines what other rules the rules on keys should import, filled while loading
 	 */
-	private final Map<Rule.Type, List<Rule.Type>> imports = new HashMap<>();
+	private final Map<Rule.Type, List<Rule.Type>> loadingImports = new HashMap<>();
 
 	/*
 	 * Create this class
@@ -54,25 +56,43 @@ public final class Rules<T extends Rule> extends RuleSetReader<T> {
 	 */
 	@Override
 	public void load() {
-		this.rules.clear();
-		this.imports.clear();
+		final Map<Rule.Type, List<Rule>> rules = new HashMap<>();
+		final Map<Rule.Type, List<Rule.Type>> imports = new HashMap<>();
+		final Map<Rule.Type, List<RuleOperator>> effectiveRules = new HashMap<>();
+		final List<Rule> allRules = new ArrayList<>();
+
+		this.loadingImports.clear();
 
 		for (final Rule.Type ruleType : Rule.Type.values()) {
-			final List<T> rules = loadFromFile("rules/" + ruleType.getKey() + ".rs");
+			final List<T> typeRules = loadFromFile("rules/" + ruleType.getKey() + ".rs");
 
 			// Debug rules
-			if (!rules.isEmpty()) {
-				Debugger.debug("rules", " ============== " + Common.plural(rules.size(), ruleType.getKey() + " rule") + " ============== ");
+			if (!typeRules.isEmpty()) {
+				Debugger.debug("rules", " ============== " + Common.plural(typeRules.size(), ruleType.getKey() + " rule") + " ============== ");
 
-				for (final Rule rule : rules)
+				for (final Rule rule : typeRules)
 					Debugger.debug("rules", rule.toString());
 			}
 
-			this.rules.put(ruleType, rules);
+			rules.put(ruleType, Collections.unmodifiableList(new ArrayList<>(typeRules)));
+			imports.put(ruleType, Collections.unmodifiableList(new ArrayList<>(this.loadingImports.getOrDefault(ruleType, new ArrayList<>()))));
 
-			// Reverse this to correct order of checking below
-			Collections.reverse(this.imports.getOrDefault(ruleType, new ArrayList<>()));
+			allRules.addAll(typeRules);
 		}
+
+		// Resolve imports once, imported rules are checked first in the order they are imported
+		for (final Rule.Type ruleType : Rule.Type.values()) {
+			final List<RuleOperator> effective = new ArrayList<>();
+
+			for (final Rule.Type imported : imports.get(ruleType))
+				effective.addAll(rules.get(imported));
+
+			effective.addAll(rules.get(ruleType));
+			effectiveRules.put(ruleType, Collections.unmodifiableList(effective));
+		}
+
+		// Compile literals of all rules into a single prefilter
+		this.loaded = new Loaded(rules, imports, effectiveRules, RuleIndex.build(allRules));
 	}
 
 	/**
@@ -95,10 +115,10 @@ public final class Rules<T extends Rule> extends RuleSetReader<T> {
 				throw new FoException("Your @import operator in " + file + " refers to unknown rule type: " + ruleType + ". Available: " + Common.join(Rule.Type.values()));
 			}
 
-			final List<Rule.Type> importedTypes = this.imports.getOrDefault(current, new ArrayList<>());
+			final List<Rule.Type> importedTypes = this.loadingImports.getOrDefault(current, new ArrayList<>());
 			importedTypes.add(imported);
 
-			this.imports.put(current, importedTypes);
+			this.loadingImports.put(current, importedTypes);
 
 			return true;
 		}
@@ -170,7 +190,7 @@ public final class Rules<T extends Rule> extends RuleSetReader<T> {
 	 * @return
 	 */
 	public Rule findRuleByMatch(Rule.Type type, String match) {
-		for (final Rule rule : this.rules.get(type))
+		for (final Rule rule : this.loaded.getRules().get(type))
 			if (rule.getMatch().equals(match))
 				return rule;
 
@@ -185,7 +205,7 @@ public final class Rules<T extends Rule> extends RuleSetReader<T> {
 	public List<Rule> getRulesWithName() {
 		final List<Rule> namedRules = new ArrayList<>();
 
-		for (final List<T> rules : this.rules.values())
+		for (final List<Rule> rules : this.loaded.getRules().values())
 			for (final Rule rule : rules)
 				if (!rule.getName().isEmpty())
 					namedRules.add(rule);
@@ -200,6 +220,56 @@ public final class Rules<T extends Rule> extends RuleSetReader<T> {
 	 * @return
 	 */
 	public List<Rule> getRules(Rule.Type type) {
-		return Collections.unmodifiableList(this.rules.get(type));
+		return this.loaded.getRules().get(type);
+	}
+
+	/**
+	 * Return immutable map of rule types the key type imports
+	 *
+	 * @return
+	 */
+	public Map<Rule.Type, List<Rule.Type>> getImports() {
+		return this.loaded.getImports();
+	}
+
+	/**
+	 * Return the effective rules together with the prefilter built with them
+	 *
+	 * @return
+	 */
+	Loaded getLoaded() {
+		return this.loaded;
+	}
+
+	/* ------------------------------------------------------------------------------- */
+	/* Classes */
+	/* ------------------------------------------------------------------------------- */
+
+	/**
+	 * Represents all rules from one load, immutable once created
+	 */
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	static final class Loaded {
+
+		/**
+		 * The loaded rules sorted by type
+		 */
+		private final Map<Rule.Type, List<Rule>> rules;
+
+		/**
+		 * Defines what other rules the rules on keys import
+		 */
+		private final Map<Rule.Type, List<Rule.Type>> imports;
+
+		/**
+		 * Rules to check per type with imports resolved
+		 */
+		private final Map<Rule.Type, List<RuleOperator>> effectiveRules;
+
+		/**
+		 * The prefilter over all loaded rules
+		 */
+		private final RuleIndex index;
 	}
 }
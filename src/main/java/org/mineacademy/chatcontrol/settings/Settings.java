@@ -813,6 +813,9 @@ public final class Settings extends SimpleSettings {
 		public static Set<org.mineacademy.chatcontrol.model.Log.Type> APPLY_ON;
 		public static SimpleTime CLEAN_AFTER;
 		public static Whiteblacklist COMMAND_LIST;
+		public static Integer BATCH_SIZE;
+		public static Integer BATCH_DELAY_MS;
+		public static Integer MAX_FILE_SIZE_MB;
 
 		private static void init() {
 			pathPrefix("Log");
@@ -820,6 +823,13 @@ public final class Settings extends SimpleSettings {
 			APPLY_ON = getSet("Apply_On", org.mineacademy.chatcontrol.model.Log.Type.class);
 			CLEAN_AFTER = getTime("Clean_After");
 			COMMAND_LIST = new Whiteblacklist(getStringList("Command_List"));
+			BATCH_SIZE = getInteger("Batch_Size");
+			BATCH_DELAY_MS = getInteger("Batch_Delay_Ms");
+			MAX_FILE_SIZE_MB = getInteger("Max_File_Size_Mb");
+
+			Valid.checkBoolean(BATCH_SIZE > 0, "Log.Batch_Size must be greater than 0, got " + BATCH_SIZE);
+			Valid.checkBoolean(BATCH_DELAY_MS > 0, "Log.Batch_Delay_Ms must be greater than 0, got " + BATCH_DELAY_MS);
+			Valid.checkBoolean(MAX_FILE_SIZE_MB > 0, "Log.Max_File_Size_Mb must be greater than 0, got " + MAX_FILE_SIZE_MB);
 		}
 	}
 
@@ -945,6 +955,7 @@ public final class Settings extends SimpleSettings {
 	public static Boolean SHOW_TIPS;
 	public static EventPriority CHAT_LISTENER_PRIORITY;
 	public static SimpleTime CLEAR_DATA_IF_INACTIVE;
+	public static SimpleTime SAVE_DATA_DELAY;
 
 	private static void init() {
 		pathPrefix(null);
@@ -952,5 +963,6 @@ public final class Settings extends SimpleSettings {
 		SHOW_TIPS = getBoolean("Show_Tips");
 		CHAT_LISTENER_PRIORITY = get("Chat_Listener_Priority", EventPriority.class);
 		CLEAR_DATA_IF_INACTIVE = getTime("Clear_Data_If_Inactive");
+		SAVE_DATA_DELAY = getTime("Save_Data_Delay");
 	}
 }
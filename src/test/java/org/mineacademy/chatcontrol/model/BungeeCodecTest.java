@@ -0,0 +1,61 @@
+package org.mineacademy.chatcontrol.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link BungeeCodec}
+ */
+public final class BungeeCodecTest {
+
+	@Test
+	public void testShortTextIsLeftAsItIs() {
+		final String text = "{\"text\":\"Hello\"}";
+
+		assertEquals(text, BungeeCodec.compress(text));
+		assertEquals(text, BungeeCodec.decompress(text));
+	}
+
+	@Test
+	public void testLongTextRoundTrip() {
+		final StringBuilder builder = new StringBuilder();
+
+		for (int i = 0; i < 200; i++)
+			builder.append("{\"text\":\"Message number ").append(i).append(" é中\"},");
+
+		final String text = builder.toString();
+		final String compressed = BungeeCodec.compress(text);
+
+		assertNotEquals(text, compressed);
+		assertTrue(compressed.length() < text.length());
+		assertEquals(text, BungeeCodec.decompress(compressed));
+	}
+
+	@Test
+	public void testMalformedCompressedTextFallsBackToRawText() {
+		final String text = "\0Z1 this is not base64!";
+
+		assertEquals(text, BungeeCodec.decompress(text));
+	}
+
+	@Test
+	public void testUniqueIdsRoundTrip() {
+		final Set<UUID> uniqueIds = new HashSet<>(Arrays.asList(UUID.randomUUID(), UUID.randomUUID(), new UUID(0, 0), new UUID(-1, -1)));
+
+		assertEquals(uniqueIds, BungeeCodec.decodeUniqueIds(BungeeCodec.encodeUniqueIds(uniqueIds)));
+	}
+
+	@Test
+	public void testNoUniqueIdsRoundTrip() {
+		assertEquals(Collections.emptySet(), BungeeCodec.decodeUniqueIds(BungeeCodec.encodeUniqueIds(Collections.emptySet())));
+	}
+}